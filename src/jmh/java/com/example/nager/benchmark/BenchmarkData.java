@@ -0,0 +1,73 @@
+package com.example.nager.benchmark;
+
+import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.config.WeekendProperties;
+import com.example.nager.model.PublicHoliday;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/** Deterministic synthetic holiday data and an in-memory client shared by the benchmarks. */
+final class BenchmarkData {
+    static final int YEAR = 2025;
+
+    private BenchmarkData() { }
+
+    /** AA, AB, ... so any number of countries gets a distinct two-letter code. */
+    static List<String> countryCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) codes.add("" + (char) ('A' + i / 26) + (char) ('A' + i % 26));
+        return codes;
+    }
+
+    /** A Nager-like year: a few fixed-date holidays every country shares plus country-specific ones. */
+    static List<PublicHoliday> holidays(String countryCode, int year) {
+        SplittableRandom random = new SplittableRandom(countryCode.hashCode() * 31L + year);
+        List<PublicHoliday> list = new ArrayList<>();
+        for (String md : List.of("01-01", "05-01", "12-25", "12-26")) list.add(holiday(countryCode, LocalDate.parse(year + "-" + md)));
+        for (int i = 0; i < 10; i++) list.add(holiday(countryCode, LocalDate.ofYearDay(year, 1 + random.nextInt(365))));
+        list.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+        return list;
+    }
+
+    static PublicHoliday holiday(String countryCode, LocalDate date) {
+        return new PublicHoliday(date, "Feiertag " + date, "Holiday " + date, countryCode, false, true, null, null, List.of("Public"));
+    }
+
+    static NagerDateReactiveClient stubClient(List<String> countries, int... years) {
+        Map<String, List<PublicHoliday>> data = new HashMap<>();
+        for (String cc : countries) for (int y : years) data.put(y + ":" + cc, holidays(cc, y));
+        return new NagerDateReactiveClient(WebClient.create(), RateLimiterRegistry.ofDefaults(), new SimpleMeterRegistry(),
+                objectMapper(), event -> { }, 0, 0) {
+            @Override
+            public Mono<List<PublicHoliday>> getPublicHolidays(int year, String countryCode) {
+                return Mono.just(data.get(year + ":" + countryCode));
+            }
+        };
+    }
+
+    static WeekendProperties weekendProperties() {
+        WeekendProperties wp = new WeekendProperties();
+        wp.setOverrides(Map.of("AE", List.of("FRIDAY", "SATURDAY")));
+        return wp;
+    }
+
+    /** Mirrors the Boot-configured mapper (JavaTimeModule, ISO dates). */
+    static JsonMapper objectMapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.nager.benchmark;
+
+import com.example.nager.model.PublicHoliday;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Retained heap of a publicHolidays-shaped cache for the whole world over several years, decoded from
+ * Nager-like JSON the way WebClient does. Not a JMH benchmark; run with
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.main=com.example.nager.benchmark.HeapFootprint -Djmh.args="countries=120 years=10"}.
+ */
+public final class HeapFootprint {
+    private static final TypeReference<List<PublicHoliday>> HOLIDAYS = new TypeReference<>() { };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) if (arg.contains("=")) options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        int countries = Integer.parseInt(options.getOrDefault("countries", "120"));
+        int years = Integer.parseInt(options.getOrDefault("years", "10"));
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+        // payloads are built up front so only the decoded cache values are measured
+        List<String> codes = BenchmarkData.countryCodes(countries);
+        Map<String, byte[]> payloads = new HashMap<>();
+        for (String cc : codes) for (int y = 2020; y < 2020 + years; y++) payloads.put(y + ":" + cc, json(cc, y));
+
+        long before = usedHeapAfterGc();
+        Map<String, List<PublicHoliday>> cache = new HashMap<>();
+        int holidays = 0;
+        for (Map.Entry<String, byte[]> e : payloads.entrySet()) {
+            List<PublicHoliday> list = mapper.readValue(e.getValue(), HOLIDAYS);
+            cache.put(e.getKey(), list);
+            holidays += list.size();
+        }
+        long retained = usedHeapAfterGc() - before;
+        System.out.printf("%d country-years, %d holidays: %,d bytes retained, %d bytes per country-year, %d bytes per holiday%n",
+                cache.size(), holidays, retained, retained / cache.size(), retained / holidays);
+        Reference.reachabilityFence(cache);
+        Reference.reachabilityFence(payloads);
+    }
+
+    /** A Nager-like year: the same named holidays every year, a few regional ones with county lists. */
+    private static byte[] json(String countryCode, int year) {
+        SplittableRandom random = new SplittableRandom(countryCode.hashCode());
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            LocalDate date = LocalDate.ofYearDay(year, 1 + random.nextInt(365));
+            String counties = i % 4 == 3 ? "[\"" + countryCode + "-BW\",\"" + countryCode + "-BY\",\"" + countryCode + "-HE\",\"" + countryCode + "-NW\",\"" + countryCode + "-SN\"]" : "null";
+            String types = i % 5 == 4 ? "[\"Public\",\"Bank\"]" : "[\"Public\"]";
+            items.add("{\"date\":\"" + date + "\",\"localName\":\"Lokaler Feiertag " + i + "\",\"name\":\"Holiday " + i
+                    + "\",\"countryCode\":\"" + countryCode + "\",\"fixed\":" + (i % 2 == 0) + ",\"global\":" + counties.equals("null")
+                    + ",\"counties\":" + counties + ",\"launchYear\":" + (i == 7 ? "1990" : "null") + ",\"types\":" + types + "}");
+        }
+        return ("[" + String.join(",", items) + "]").getBytes();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
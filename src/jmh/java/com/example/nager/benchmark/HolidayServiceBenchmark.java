@@ -0,0 +1,55 @@
+package com.example.nager.benchmark;
+
+import com.example.nager.model.CommonHoliday;
+import com.example.nager.model.CountryHolidayCount;
+import com.example.nager.model.HolidaySummary;
+import com.example.nager.service.HolidayService;
+import org.openjdk.jmh.annotations.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compute paths of {@link HolidayService} against an in-memory client. No Spring proxy is involved, so
+ * every invocation measures a cache miss of the service-level caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolidayServiceBenchmark {
+
+    @Param({"1", "10", "120"})
+    public int countries;
+
+    private HolidayService service;
+    private List<String> codes;
+    private final LocalDate today = LocalDate.of(BenchmarkData.YEAR, 7, 1);
+
+    @Setup
+    public void setup() {
+        codes = BenchmarkData.countryCodes(Math.max(countries, 2));
+        service = new HolidayService(BenchmarkData.stubClient(codes, BenchmarkData.YEAR - 1, BenchmarkData.YEAR), BenchmarkData.weekendProperties(), new NoOpCacheManager(), new SimpleMeterRegistry());
+        codes = codes.subList(0, countries);
+    }
+
+    @Benchmark
+    public List<HolidaySummary> lastThree() {
+        return service.getLastThreeHolidays("AA", today).block();
+    }
+
+    @Benchmark
+    public List<CountryHolidayCount> weekdayCount() {
+        return service.countWeekdayHolidays(BenchmarkData.YEAR, codes).block();
+    }
+
+    @Benchmark
+    public List<CommonHoliday> commonDates() {
+        return service.commonDates(BenchmarkData.YEAR, "AA", "AB").block();
+    }
+}
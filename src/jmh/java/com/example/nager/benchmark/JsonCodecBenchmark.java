@@ -0,0 +1,64 @@
+package com.example.nager.benchmark;
+
+import com.example.nager.model.CommonHoliday;
+import com.example.nager.model.CountryHolidayCount;
+import com.example.nager.model.HolidaySummary;
+import com.example.nager.model.PublicHoliday;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson cost of decoding Nager payloads and encoding the response DTOs. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private byte[] upstreamPayload;
+    private ObjectReader holidayReader;
+    private ObjectWriter writer;
+    private List<HolidaySummary> summaries;
+    private List<CountryHolidayCount> counts;
+    private List<CommonHoliday> common;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = BenchmarkData.objectMapper();
+        List<PublicHoliday> holidays = BenchmarkData.holidays("AA", BenchmarkData.YEAR);
+        upstreamPayload = mapper.writeValueAsBytes(holidays);
+        holidayReader = mapper.readerFor(PublicHoliday[].class);
+        writer = mapper.writer();
+        summaries = holidays.stream().limit(3).map(h -> new HolidaySummary(h.getDate(), h.getName())).toList();
+        counts = new ArrayList<>();
+        for (String cc : BenchmarkData.countryCodes(120)) counts.add(new CountryHolidayCount(cc, cc.hashCode() % 15));
+        common = holidays.stream().map(h -> new CommonHoliday(h.getDate(), h.getLocalName(), h.getName())).toList();
+    }
+
+    @Benchmark
+    public PublicHoliday[] decodePublicHolidays() throws Exception {
+        return holidayReader.readValue(upstreamPayload);
+    }
+
+    @Benchmark
+    public byte[] encodeLastThree() throws Exception {
+        return writer.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] encodeWeekdayCounts() throws Exception {
+        return writer.writeValueAsBytes(counts);
+    }
+
+    @Benchmark
+    public byte[] encodeCommonDates() throws Exception {
+        return writer.writeValueAsBytes(common);
+    }
+}
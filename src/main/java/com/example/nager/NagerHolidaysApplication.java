@@ -2,8 +2,10 @@ package com.example.nager;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class NagerHolidaysApplication {
     public static void main(String[] args) {
         SpringApplication.run(NagerHolidaysApplication.class, args);
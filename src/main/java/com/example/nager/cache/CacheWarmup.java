@@ -0,0 +1,135 @@
+package com.example.nager.cache;
+
+import com.example.nager.client.ConcurrencyLimitExceededException;
+import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.config.WarmupProperties;
+import com.example.nager.model.AvailableCountry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prefetches a countries x years matrix into publicHolidays once the application is up, with bounded concurrency and
+ * background priority; a limiter rejection waits for the next permit period instead of failing. It holds the application's
+ * {@link ReadinessState} at REFUSING_TRAFFIC until the warm-up has finished or its deadline has passed, so only readiness
+ * (not liveness or overall health) reflects it.
+ */
+@Component
+public class CacheWarmup {
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmup.class);
+    private static final int PERMIT_RETRIES = 30;
+    private final NagerDateReactiveClient client;
+    private final WarmupProperties props;
+    private final ApplicationEventPublisher publisher;
+    private final Duration permitPeriod;
+    private final Timer duration;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long startedNanos;
+    private volatile long elapsedMs = -1; // set once finished
+    private boolean released; // guarded by this: readiness is no longer held back
+
+    public CacheWarmup(NagerDateReactiveClient client, WarmupProperties props, ApplicationEventPublisher publisher,
+                       RateLimiterRegistry rateLimiterRegistry, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.props = props;
+        this.publisher = publisher;
+        this.released = !props.isEnabled();
+        this.permitPeriod = rateLimiterRegistry.rateLimiter("nager").getRateLimiterConfig().getLimitRefreshPeriod();
+        this.duration = Timer.builder("holiday.warmup.duration").description("Time to prefetch the warm-up matrix").register(meterRegistry);
+        Gauge.builder("holiday.warmup.entries", total, AtomicInteger::get).tag("state", "total").register(meterRegistry);
+        Gauge.builder("holiday.warmup.entries", loaded, AtomicInteger::get).tag("state", "loaded").register(meterRegistry);
+        Gauge.builder("holiday.warmup.entries", failed, AtomicInteger::get).tag("state", "failed").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!props.isEnabled()) return;
+        run().subscribe();
+        // past the deadline traffic is let in while the rest keeps loading in the background
+        Mono.delay(Duration.ofMillis(props.getDeadlineMs())).subscribe(t -> {
+            if (elapsedMs < 0) log.info("Warm-up passed its {} ms deadline, accepting traffic while it continues", props.getDeadlineMs());
+            release();
+        });
+    }
+
+    // the application turns ready right after ApplicationReadyEvent; while warming up that is taken back
+    @EventListener
+    public synchronized void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        if (!released && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+    }
+
+    private synchronized void release() {
+        if (released) return;
+        released = true;
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    Mono<Void> run() {
+        startedNanos = System.nanoTime();
+        int year = Year.now().getValue();
+        int firstYear = year - props.getYearsBefore(), years = props.getYearsBefore() + props.getYearsAfter() + 1;
+        return countries()
+            .doOnNext(codes -> {
+                total.set(codes.size() * years);
+                log.info("Warming up {} countries x {} years ({}-{})", codes.size(), years, firstYear, firstYear + years - 1);
+            })
+            .flatMapMany(Flux::fromIterable)
+            .concatMap(cc -> Flux.range(firstYear, years).map(y -> Tuples.of(y, cc)))
+            .flatMap(entry -> fetch(entry.getT1(), entry.getT2()), props.getConcurrency())
+            .then()
+            .onErrorResume(e -> {
+                log.warn("Warm-up could not list countries: {}", e.toString());
+                return Mono.empty();
+            })
+            .doOnTerminate(() -> { // before completion reaches the subscriber, so a finished warm-up is already reported
+                long elapsed = System.nanoTime() - startedNanos;
+                duration.record(Duration.ofNanos(elapsed));
+                elapsedMs = elapsed / 1_000_000;
+                log.info("Warm-up finished in {} ms: {} of {} country-years loaded, {} failed", elapsedMs, loaded.get(), total.get(), failed.get());
+                release();
+            });
+    }
+
+    private Mono<List<String>> countries() {
+        if (props.getCountries().stream().noneMatch("all"::equalsIgnoreCase)) {
+            return Mono.just(props.getCountries().stream().map(String::trim).map(String::toUpperCase).distinct().toList());
+        }
+        return client.getAvailableCountries().map(list -> list.stream().map(AvailableCountry::getCountryCode).toList());
+    }
+
+    private Mono<Void> fetch(int year, String countryCode) {
+        return Mono.defer(() -> client.getPublicHolidaysInBackground(year, countryCode))
+            .retryWhen(Retry.fixedDelay(PERMIT_RETRIES, permitPeriod)
+                .filter(e -> e instanceof RequestNotPermitted || e instanceof ConcurrencyLimitExceededException)
+                .onRetryExhaustedThrow((spec, sig) -> sig.failure()))
+            .doOnSuccess(list -> loaded.incrementAndGet())
+            .onErrorResume(e -> {
+                failed.incrementAndGet();
+                log.debug("Warm-up of {}/{} failed: {}", year, countryCode, e.toString());
+                return Mono.empty();
+            })
+            .then();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.nager.cache;
+
+import com.example.nager.model.PublicHoliday;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of the publicHolidays dataset ({@code "year:CC" -> holidays}).
+ * <pre>
+ * magic "NHS1" | version | writtenAtEpochMs
+ * string table: count, then (utf8 length, bytes)...     strings are referenced by 1-based index, 0 = null
+ * entries:      count, then (year, c0, c1, holidayCount, holidays...)
+ * holiday:      epochDay, flags, [launchYear], localName, name, countryCode, counties..., typeMask
+ * </pre>
+ * All integers except the header are unsigned LEB128 varints, so a typical holiday costs ~10 bytes.
+ */
+public final class HolidaySnapshotCodec {
+    static final int MAGIC = 0x4E485331; // "NHS1"
+    static final int VERSION = 2;
+    private static final int FIXED = 1, GLOBAL = 2, LAUNCH_YEAR = 4;
+
+    private HolidaySnapshotCodec() { }
+
+    public record Snapshot(long writtenAtEpochMs, Map<String, List<PublicHoliday>> entries) { }
+
+    public static void write(Map<String, List<PublicHoliday>> entries, long writtenAtEpochMs, OutputStream target) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (List<PublicHoliday> list : entries.values()) {
+            for (PublicHoliday h : list) {
+                intern(strings, h.getLocalName()); intern(strings, h.getName()); intern(strings, h.getCountryCode());
+                if (h.getCounties() != null) h.getCounties().forEach(c -> intern(strings, c));
+            }
+        }
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(writtenAtEpochMs);
+        writeVarInt(out, strings.size());
+        for (String s : strings.keySet()) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, utf8.length);
+            out.write(utf8);
+        }
+        writeVarInt(out, entries.size());
+        for (Map.Entry<String, List<PublicHoliday>> e : entries.entrySet()) {
+            String[] key = e.getKey().split(":");
+            writeVarInt(out, Integer.parseInt(key[0]));
+            out.writeByte(key[1].charAt(0));
+            out.writeByte(key[1].charAt(1));
+            writeVarInt(out, e.getValue().size());
+            for (PublicHoliday h : e.getValue()) {
+                writeVarInt(out, h.getEpochDay());
+                int flags = (h.isFixed() ? FIXED : 0) | (h.isGlobal() ? GLOBAL : 0) | (h.getLaunchYear() != null ? LAUNCH_YEAR : 0);
+                out.writeByte(flags);
+                if (h.getLaunchYear() != null) writeVarInt(out, h.getLaunchYear());
+                writeVarInt(out, ref(strings, h.getLocalName()));
+                writeVarInt(out, ref(strings, h.getName()));
+                writeVarInt(out, ref(strings, h.getCountryCode()));
+                writeRefs(out, strings, h.getCounties());
+                writeVarInt(out, h.getTypeMask());
+            }
+        }
+        out.flush();
+    }
+
+    public static Snapshot read(ByteBuffer in) {
+        if (in.getInt() != MAGIC) throw new IllegalArgumentException("Not a holiday snapshot");
+        int version = in.getInt();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        long writtenAt = in.getLong();
+        String[] strings = new String[readVarInt(in) + 1];
+        for (int i = 1; i < strings.length; i++) {
+            byte[] utf8 = new byte[readVarInt(in)];
+            in.get(utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        int entryCount = readVarInt(in);
+        Map<String, List<PublicHoliday>> entries = new HashMap<>(entryCount * 2);
+        for (int e = 0; e < entryCount; e++) {
+            int year = readVarInt(in);
+            String cc = "" + (char) in.get() + (char) in.get();
+            int size = readVarInt(in);
+            List<PublicHoliday> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int epochDay = readVarInt(in);
+                int flags = in.get();
+                int launchYear = (flags & LAUNCH_YEAR) != 0 ? readVarInt(in) : 0;
+                String localName = strings[readVarInt(in)], name = strings[readVarInt(in)], countryCode = strings[readVarInt(in)];
+                List<String> counties = readRefs(in, strings);
+                PublicHoliday h = new PublicHoliday(epochDay, localName, name, countryCode, (flags & FIXED) != 0, (flags & GLOBAL) != 0,
+                        counties, launchYear, readVarInt(in));
+                list.add(h);
+            }
+            entries.put(year + ":" + cc, List.copyOf(list));
+        }
+        return new Snapshot(writtenAt, entries);
+    }
+
+    private static void intern(Map<String, Integer> strings, String s) {
+        if (s != null) strings.putIfAbsent(s, strings.size() + 1);
+    }
+
+    private static int ref(Map<String, Integer> strings, String s) {
+        return s == null ? 0 : strings.get(s);
+    }
+
+    // 0 = null list, otherwise size + 1
+    private static void writeRefs(DataOutputStream out, Map<String, Integer> strings, List<String> values) throws IOException {
+        writeVarInt(out, values == null ? 0 : values.size() + 1);
+        if (values != null) for (String v : values) writeVarInt(out, ref(strings, v));
+    }
+
+    private static List<String> readRefs(ByteBuffer in, String[] strings) {
+        int n = readVarInt(in);
+        if (n == 0) return null;
+        List<String> values = new ArrayList<>(n - 1);
+        for (int i = 1; i < n; i++) values.add(strings[readVarInt(in)]);
+        return values;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
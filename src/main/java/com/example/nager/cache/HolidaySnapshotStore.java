@@ -0,0 +1,147 @@
+package com.example.nager.cache;
+
+import com.example.nager.config.CacheConfig;
+import com.example.nager.model.PublicHoliday;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically writes the publicHolidays cache to a local snapshot file and loads it back (memory-mapped)
+ * before the web server starts, so a restarted instance serves warm data right away. Loaded entries are
+ * then refreshed from Nager one by one in the background.
+ */
+@Component
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class HolidaySnapshotStore implements SmartInitializingSingleton {
+    private static final Logger log = LoggerFactory.getLogger(HolidaySnapshotStore.class);
+    private final CacheManager cacheManager;
+    private final Timer writeTimer;
+    private final Timer loadTimer;
+    private final AtomicLong sizeBytes = new AtomicLong();
+    private final AtomicLong entryCount = new AtomicLong();
+    private volatile Disposable backgroundRefresh;
+
+    @Value("${app.snapshot.path:data/public-holidays.snapshot}") private Path path;
+    @Value("${app.snapshot.refresh-spacing-ms:500}") private long refreshSpacingMs;
+
+    public HolidaySnapshotStore(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.writeTimer = Timer.builder("holiday.snapshot.write").description("Time to write the holiday snapshot").register(meterRegistry);
+        this.loadTimer = Timer.builder("holiday.snapshot.load").description("Time to load the holiday snapshot").register(meterRegistry);
+        Gauge.builder("holiday.snapshot.size", sizeBytes, AtomicLong::get).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("holiday.snapshot.entries", entryCount, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!Files.isRegularFile(path)) {
+            log.info("No holiday snapshot at {}, starting cold", path);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            HolidaySnapshotCodec.Snapshot snapshot;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                snapshot = HolidaySnapshotCodec.read(buffer);
+                sizeBytes.set(channel.size());
+            }
+            Cache cache = publicHolidays();
+            snapshot.entries().forEach(cache::put);
+            long elapsed = System.nanoTime() - start;
+            loadTimer.record(Duration.ofNanos(elapsed));
+            entryCount.set(snapshot.entries().size());
+            log.info("Loaded {} country-years ({} bytes, written {} ms ago) from {} in {} ms", snapshot.entries().size(), sizeBytes.get(),
+                    System.currentTimeMillis() - snapshot.writtenAtEpochMs(), path, elapsed / 1_000_000);
+            refreshInBackground(List.copyOf(snapshot.entries().keySet()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable holiday snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.snapshot.interval-ms:600000}", fixedDelayString = "${app.snapshot.interval-ms:600000}")
+    public void write() {
+        Map<String, List<PublicHoliday>> entries = new HashMap<>();
+        publicHolidaysNative().asMap().forEach((k, v) -> {
+            if (v instanceof List<?> list) entries.put(k.toString(), castList(list));
+        });
+        if (entries.isEmpty()) return;
+        long start = System.nanoTime();
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                HolidaySnapshotCodec.write(entries, System.currentTimeMillis(), out);
+            }
+            long size = Files.size(tmp);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long elapsed = System.nanoTime() - start;
+            writeTimer.record(Duration.ofNanos(elapsed));
+            sizeBytes.set(size);
+            entryCount.set(entries.size());
+            log.info("Wrote holiday snapshot: {} country-years, {} bytes in {} ms", entries.size(), size, elapsed / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Could not write holiday snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        Disposable refresh = backgroundRefresh;
+        if (refresh != null) refresh.dispose();
+        write();
+    }
+
+    private void refreshInBackground(List<String> keys) {
+        if (!(publicHolidaysNative() instanceof LoadingCache<Object, Object> loading)) return;
+        backgroundRefresh = Flux.fromIterable(keys)
+                .delayElements(Duration.ofMillis(refreshSpacingMs))
+                .concatMap(key -> Mono.fromFuture(loading.refresh(key)).onErrorResume(e -> Mono.empty()))
+                .subscribe(null, e -> log.warn("Background refresh of snapshot entries stopped: {}", e.toString()),
+                        () -> log.info("Refreshed {} snapshot entries from upstream", keys.size()));
+    }
+
+    private Cache publicHolidays() {
+        return cacheManager.getCache(CacheConfig.PUBLIC_HOLIDAYS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> publicHolidaysNative() {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) publicHolidays().getNativeCache();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PublicHoliday> castList(List<?> list) {
+        return (List<PublicHoliday>) list;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.nager.cache;
+
+import com.example.nager.config.PeerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional second cache tier shared by the instances in {@code app.peers.members}: every {@code year:CC} key has one
+ * owner on a consistent-hash ring, and a local publicHolidays miss asks that owner before going to Nager.Date, so
+ * each country-year is fetched upstream by one instance only. An owner that fails or is slow is simply skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "app.peers.enabled", havingValue = "true")
+public class PeerCache {
+    private static final Logger log = LoggerFactory.getLogger(PeerCache.class);
+    public static final String PATH = "/internal/peers/public-holidays/{year}/{countryCode}";
+    public static final String TOKEN_HEADER = "X-Peer-Token";
+    // the owner's upstream validators; not ETag/Last-Modified, which would describe the owner's own encoding of the list
+    public static final String ETAG_HEADER = "X-Upstream-ETag";
+    public static final String LAST_MODIFIED_HEADER = "X-Upstream-Last-Modified";
+    private final PeerRing ring;
+    private final String self;
+    private final byte[] token;
+    private final Duration timeout;
+    private final WebClient webClient = WebClient.create();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> lookups = new ConcurrentHashMap<>();
+
+    public PeerCache(PeerProperties props, MeterRegistry meterRegistry) {
+        List<String> members = props.getMembers().stream().map(PeerCache::normalize).distinct().toList();
+        this.ring = new PeerRing(members, props.getVirtualNodes());
+        this.self = normalize(props.getSelf());
+        this.timeout = Duration.ofMillis(props.getTimeoutMs());
+        this.token = props.getToken().getBytes(StandardCharsets.UTF_8);
+        this.meterRegistry = meterRegistry;
+        if (!members.contains(self)) log.warn("app.peers.self {} is not among app.peers.members; this instance owns no keys", self);
+        if (token.length == 0) log.warn("app.peers.token is blank; requests from peers will be refused");
+        log.info("Peer cache tier over {} members, self {}", members.size(), self);
+    }
+
+    public boolean ownedLocally(int year, String countryCode) {
+        return ring.owner(year + ":" + countryCode).equals(self);
+    }
+
+    /** Whether a request to {@link #PATH} carries the shared token, compared in constant time. */
+    public boolean authorized(String presented) {
+        return token.length > 0 && presented != null && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The owner's encoded list with its upstream validators; empty when this instance is the owner or the owner could not answer in time. */
+    public Mono<ResponseEntity<byte[]>> fromOwner(int year, String countryCode) {
+        String owner = ring.owner(year + ":" + countryCode);
+        if (owner.equals(self)) return Mono.empty();
+        return webClient.get().uri(owner + PATH, year, countryCode)
+                .header(TOKEN_HEADER, new String(token, StandardCharsets.UTF_8))
+                .retrieve()
+                .toEntity(byte[].class)
+                .timeout(timeout)
+                .doOnNext(body -> lookup("hit"))
+                // the owner already asked Nager.Date; its 404 is as good as one from upstream
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    lookup("not_found");
+                    return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unsupported country code"));
+                })
+                .onErrorResume(e -> !(e instanceof ResponseStatusException), e -> {
+                    lookup("failed");
+                    log.debug("Peer {} did not answer {}/{}: {}", owner, year, countryCode, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private void lookup(String result) {
+        lookups.computeIfAbsent(result, r -> Counter.builder("holiday.peer.lookups").tag("result", r)
+                .description("Local publicHolidays misses sent to the owning peer, by outcome").register(meterRegistry)).increment();
+    }
+
+    private static String normalize(String baseUrl) {
+        String url = baseUrl.trim();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
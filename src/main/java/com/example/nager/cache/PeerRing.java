@@ -0,0 +1,41 @@
+package com.example.nager.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring over peer base URLs. Each member sits at {@code virtualNodes} points; a key belongs to the
+ * first point at or after its own hash, so adding or removing a member only moves the keys next to its points.
+ */
+final class PeerRing {
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    PeerRing(List<String> members, int virtualNodes) {
+        if (members.isEmpty()) throw new IllegalArgumentException("app.peers.members must list at least one instance");
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) points.put(hash(member + "#" + i), member);
+        }
+    }
+
+    String owner(String key) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    // first 8 bytes of MD5: evenly spread, and identical on every instance whatever the JVM
+    static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) h = (h << 8) | (digest[i] & 0xff);
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
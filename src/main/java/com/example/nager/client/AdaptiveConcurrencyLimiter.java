@@ -0,0 +1,243 @@
+package com.example.nager.client;
+
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AIMD limit on concurrent upstream calls. Every call that completes fast and without an overload signal
+ * (5xx, 429, timeout, I/O error) adds {@code 1/limit} while the limit is at least half used; every overload signal,
+ * and every call slower than {@code slow-call-ms}, multiplies it by {@code backoff-ratio}. Calls over the limit wait
+ * in a short bounded queue in which foreground requests go before background ones (refresh-ahead, warm-up); a call
+ * shared by several callers is background only while all of them are, and moves up when a foreground caller joins. A call
+ * turned away before it reached upstream (rate limiter, nested limit) gives its permit back without any adjustment.
+ */
+@Component
+@ConditionalOnProperty(name = "app.adaptive-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveConcurrencyLimiter {
+    static final String BACKGROUND = "nager.background";
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Deque<Waiter> foreground = new ArrayDeque<>();
+    private final Deque<Waiter> background = new ArrayDeque<>();
+    private final Counter foregroundRejected;
+    private final Counter backgroundRejected;
+    private double limit;
+    private int inFlight;
+
+    // released exactly once, whether by the call that used it or by a waiter cancelled just as it was granted
+    final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release(boolean overload) {
+            if (released.compareAndSet(false, true)) AdaptiveConcurrencyLimiter.this.release(startNanos, overload, true);
+        }
+
+        void abandon() {
+            if (released.compareAndSet(false, true)) AdaptiveConcurrencyLimiter.this.release(startNanos, false, false);
+        }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final AtomicBoolean shared; // the priority of a shared call, null for a call of its own
+        Permit permit;   // set when granted
+        Waiter(MonoSink<Permit> sink, AtomicBoolean shared) { this.sink = sink; this.shared = shared; }
+    }
+
+    public AdaptiveConcurrencyLimiter(@Value("${app.adaptive-limit.initial-limit:20}") int initialLimit,
+                                      @Value("${app.adaptive-limit.min-limit:2}") int minLimit,
+                                      @Value("${app.adaptive-limit.max-limit:200}") int maxLimit,
+                                      @Value("${app.adaptive-limit.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${app.adaptive-limit.slow-call-ms:2000}") long slowCallMs,
+                                      @Value("${app.adaptive-limit.max-queue:50}") int maxQueue,
+                                      @Value("${app.adaptive-limit.max-wait-ms:250}") long maxWaitMs,
+                                      MeterRegistry meterRegistry) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.slowCallNanos = Duration.ofMillis(slowCallMs).toNanos();
+        this.maxQueue = maxQueue;
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        Gauge.builder("nager.client.limit", this, l -> l.currentLimit()).description("Current adaptive limit on concurrent upstream calls").register(meterRegistry);
+        Gauge.builder("nager.client.limit.inflight", this, l -> l.inFlight()).description("Upstream calls holding a permit").register(meterRegistry);
+        Gauge.builder("nager.client.limit.queue", this, l -> l.queued(false)).tag("priority", "foreground")
+                .description("Upstream calls waiting for a permit").register(meterRegistry);
+        Gauge.builder("nager.client.limit.queue", this, l -> l.queued(true)).tag("priority", "background")
+                .description("Upstream calls waiting for a permit").register(meterRegistry);
+        this.foregroundRejected = rejected(meterRegistry, "foreground");
+        this.backgroundRejected = rejected(meterRegistry, "background");
+    }
+
+    /** Marks the upstream calls made for {@code mono} as background traffic. */
+    public static <T> Mono<T> inBackground(Mono<T> mono) {
+        return mono.contextWrite(Context.of(BACKGROUND, true));
+    }
+
+    static boolean isBackground(ContextView ctx) {
+        Object priority = ctx.getOrDefault(BACKGROUND, false);
+        return priority instanceof AtomicBoolean shared ? shared.get() : (Boolean) priority;
+    }
+
+    /** {@code ctx} for a call shared by several callers, background while {@code background} is set (see {@link #promote}). */
+    static Context sharedBy(Context ctx, AtomicBoolean background) {
+        return ctx.put(BACKGROUND, background);
+    }
+
+    /** A foreground caller joined the shared call: it, and any of its calls still queued, go with the foreground. */
+    void promote(AtomicBoolean shared) {
+        synchronized (this) {
+            if (!shared.compareAndSet(true, false)) return;
+            for (Iterator<Waiter> it = background.iterator(); it.hasNext(); ) {
+                Waiter waiter = it.next();
+                if (waiter.shared == shared) {
+                    it.remove();
+                    foreground.addLast(waiter);
+                }
+            }
+        }
+    }
+
+    /** Runs {@code call} under a permit, and feeds its latency and outcome back into the limit. */
+    public <T> Mono<T> limit(Mono<T> call) {
+        return Mono.deferContextual(ctx -> Mono.usingWhen(acquire(ctx.getOrDefault(BACKGROUND, false)), permit -> call,
+                permit -> Mono.fromRunnable(() -> permit.release(false)),
+                (permit, e) -> Mono.fromRunnable(() -> {
+                    if (reachedUpstream(e)) permit.release(isOverload(e));
+                    else permit.abandon();
+                }),
+                permit -> Mono.fromRunnable(() -> permit.release(false))));
+    }
+
+    // priority is a Boolean, or the AtomicBoolean of a shared call, read under the lock that promote() takes
+    Mono<Permit> acquire(Object priority) {
+        return Mono.create(sink -> {
+            AtomicBoolean shared = priority instanceof AtomicBoolean a ? a : null;
+            Waiter waiter = null;
+            Permit permit = null;
+            boolean isBackground;
+            synchronized (this) {
+                isBackground = shared != null ? shared.get() : (Boolean) priority;
+                if (inFlight < (int) limit && foreground.isEmpty() && (!isBackground || background.isEmpty())) {
+                    inFlight++;
+                    permit = new Permit();
+                } else if (foreground.size() + background.size() < maxQueue) {
+                    waiter = new Waiter(sink, shared);
+                    (isBackground ? background : foreground).addLast(waiter);
+                }
+            }
+            if (permit != null) {
+                sink.success(permit);
+            } else if (waiter == null) {
+                countRejection(isBackground);
+                sink.error(new ConcurrencyLimitExceededException("Upstream concurrency limit reached and wait queue full"));
+            } else {
+                Waiter queued = waiter;
+                Disposable timer = Schedulers.parallel().schedule(() -> expire(queued), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                sink.onCancel(() -> cancel(queued));
+                sink.onDispose(timer);
+            }
+        });
+    }
+
+    private void expire(Waiter waiter) {
+        boolean isBackground;
+        synchronized (this) {
+            if (waiter.permit != null) return;
+            if (foreground.remove(waiter)) isBackground = false;
+            else if (background.remove(waiter)) isBackground = true;
+            else return;
+        }
+        countRejection(isBackground);
+        waiter.sink.error(new ConcurrencyLimitExceededException("No upstream permit within " + maxWait.toMillis() + " ms"));
+    }
+
+    private void cancel(Waiter waiter) {
+        Permit granted;
+        synchronized (this) {
+            granted = waiter.permit;
+            if (granted == null) {
+                foreground.remove(waiter);
+                background.remove(waiter);
+            }
+        }
+        if (granted != null) granted.abandon();
+    }
+
+    private void release(long startNanos, boolean overload, boolean adjust) {
+        long elapsed = System.nanoTime() - startNanos;
+        Waiter next;
+        synchronized (this) {
+            inFlight--;
+            if (adjust && (overload || elapsed > slowCallNanos)) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (adjust && inFlight + 1 >= limit / 2) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            next = inFlight < (int) limit ? (foreground.isEmpty() ? background.pollFirst() : foreground.pollFirst()) : null;
+            if (next != null) {
+                inFlight++;
+                next.permit = new Permit();
+            }
+        }
+        if (next != null) next.sink.success(next.permit);
+    }
+
+    synchronized double currentLimit() {
+        return limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int queued(boolean isBackground) {
+        return (isBackground ? background : foreground).size();
+    }
+
+    // a limiter rejection says nothing about upstream: counting it as a fast success would raise the limit under saturation
+    private static boolean reachedUpstream(Throwable e) {
+        return !(e instanceof RequestNotPermitted) && !(e instanceof ConcurrencyLimitExceededException);
+    }
+
+    // 4xx are the caller's problem; anything else means upstream strain
+    private static boolean isOverload(Throwable e) {
+        if (e instanceof WebClientResponseException wcre) {
+            return wcre.getStatusCode().is5xxServerError() || wcre.getStatusCode().value() == 429;
+        }
+        return true;
+    }
+
+    private void countRejection(boolean isBackground) {
+        (isBackground ? backgroundRejected : foregroundRejected).increment();
+    }
+
+    private static Counter rejected(MeterRegistry registry, String priority) {
+        return Counter.builder("nager.client.limit.rejected").tag("priority", priority)
+                .description("Upstream calls turned away by the adaptive limiter (queue full or wait exceeded)").register(registry);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.nager.client;
+
+/** An upstream call found the adaptive concurrency limit reached and its wait queue full, or waited too long. */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    public ConcurrencyLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.nager.client;
+
+import com.example.nager.model.AvailableCountry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Country codes served by Nager.Date (from {@code /AvailableCountries}), so unknown codes are rejected in memory.
+ * Fails open: until a load has succeeded every code is accepted, and a failed or empty refresh keeps the previous set.
+ */
+final class CountryRegistry {
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile Set<String> codes = Set.of();
+    private volatile long retryAtNanos = System.nanoTime();
+
+    boolean supports(String countryCode) {
+        Set<String> known = codes;
+        return known.isEmpty() || known.contains(countryCode.toUpperCase(Locale.ROOT));
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    /** Nothing loaded yet and no failed attempt within its retry delay. */
+    boolean shouldLoad() {
+        return codes.isEmpty() && System.nanoTime() - retryAtNanos >= 0;
+    }
+
+    /** Claims the single concurrent load; the caller must end it with {@link #loaded} or {@link #loadFailed}. */
+    boolean tryStartLoad() {
+        return loading.compareAndSet(false, true);
+    }
+
+    /** Ends the load; false when it brought no codes, which the caller treats like a failure. */
+    boolean loaded(List<AvailableCountry> countries) {
+        boolean any = update(countries);
+        loading.set(false);
+        return any;
+    }
+
+    void loadFailed(Duration retryAfter) {
+        retryAtNanos = System.nanoTime() + retryAfter.toNanos();
+        loading.set(false);
+    }
+
+    boolean update(List<AvailableCountry> countries) {
+        Set<String> next = countries.stream().map(AvailableCountry::getCountryCode).filter(Objects::nonNull)
+                .map(cc -> cc.toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        if (next.isEmpty()) return false;
+        codes = next;
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.nager.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time by which a request must be answered, carried in the Reactor Context from the web layer down to
+ * where it waits for data. Work shared with other callers (single-flight fetches) never runs under one caller's
+ * deadline: it gets a {@link #shared} copy that {@link #extendTo} moves out to the latest of its callers'. Each caller
+ * still stops waiting at its own, see {@link #enforce}.
+ */
+public final class Deadline {
+    private static final String KEY = "holiday.deadline";
+    private static final long UNBOUNDED_NANOS = TimeUnit.DAYS.toNanos(365 * 100L); // a caller without a deadline joined
+    private volatile long deadlineNanos; // only a shared copy moves
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /** The deadline of the current request, or null outside of one. */
+    public static Deadline from(ContextView context) {
+        return context.getOrDefault(KEY, null);
+    }
+
+    /** A copy for work shared with later callers, which {@link #extendTo} moves out as they join. */
+    public Deadline shared() {
+        return new Deadline(deadlineNanos);
+    }
+
+    /** Moves this (shared) deadline out to {@code other} if that is later; {@code null}, no deadline at all, lifts it. */
+    public synchronized void extendTo(Deadline other) {
+        long target = other == null ? System.nanoTime() + UNBOUNDED_NANOS : other.deadlineNanos;
+        if (target - deadlineNanos > 0) deadlineNanos = target;
+    }
+
+    /** Emits once this deadline has passed, following it if it is moved out meanwhile. */
+    public Mono<Long> passes() {
+        return Mono.defer(() -> expired() ? Mono.just(0L) : Mono.delay(remaining()).then(passes()));
+    }
+
+    public Context putIn(Context context) {
+        return context.put(KEY, this);
+    }
+
+    /** {@code context} without a deadline, for work whose result other callers share. */
+    public static Context removeFrom(Context context) {
+        return context.delete(KEY);
+    }
+
+    /** {@code mono} as seen by the current subscriber: failed with {@link #exceeded()} once its deadline passes. */
+    public static <T> Mono<T> enforce(Mono<T> mono) {
+        return Mono.deferContextual(ctx -> {
+            Deadline deadline = from(ctx);
+            if (deadline == null) return mono;
+            if (deadline.expired()) return Mono.error(exceeded());
+            return mono.timeout(deadline.remaining(), Mono.error(Deadline::exceeded));
+        });
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean expired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public static ResponseStatusException exceeded() {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.nager.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When a slow upstream call gets a duplicate: once it has run longer than the recent {@code percentile} latency of its
+ * URI (a window of the last successes), and only while a token bucket allows it. Every primary call adds
+ * {@code budget} tokens and a hedge costs one, so hedges stay within that fraction of upstream load.
+ */
+@Component
+@ConditionalOnProperty(name = "app.hedging.enabled", havingValue = "true")
+public class HedgePolicy {
+    private static final int WINDOW = 256;
+    private static final double MAX_TOKENS = 10; // the largest burst of hedges after a quiet period
+    private final double percentile;
+    private final double budget;
+    private final int minSamples;
+    private final long minDelayNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private double tokens;
+
+    public HedgePolicy(@Value("${app.hedging.percentile:0.95}") double percentile,
+                       @Value("${app.hedging.budget:0.05}") double budget,
+                       @Value("${app.hedging.min-samples:20}") int minSamples,
+                       @Value("${app.hedging.min-delay-ms:50}") long minDelayMs) {
+        this.percentile = percentile;
+        this.budget = budget;
+        this.minSamples = minSamples;
+        this.minDelayNanos = Duration.ofMillis(minDelayMs).toNanos();
+    }
+
+    /** How long to wait before hedging a call to {@code uri}; null while fewer than min-samples latencies are known. */
+    Duration delay(String uri) {
+        Window window = windows.get(uri);
+        if (window == null) return null;
+        long p = window.percentile(percentile, minSamples);
+        return p < 0 ? null : Duration.ofNanos(Math.max(p, minDelayNanos));
+    }
+
+    void record(String uri, long nanos) {
+        windows.computeIfAbsent(uri, u -> new Window()).add(nanos);
+    }
+
+    synchronized void primary() {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    private static final class Window {
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+
+        synchronized void add(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        synchronized long percentile(double p, int minSamples) {
+            if (count < Math.max(1, minSamples)) return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(p * count) - 1)];
+        }
+    }
+}
@@ -1,15 +1,31 @@
 
 package com.example.nager.client;
 
+import com.example.nager.cache.PeerCache;
+import com.example.nager.model.AvailableCountry;
 import com.example.nager.model.PublicHoliday;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
 import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -17,57 +33,426 @@ import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Component
 public class NagerDateReactiveClient {
     private static final Logger log = LoggerFactory.getLogger(NagerDateReactiveClient.class);
+    private static final Duration ATTEMPT_TIMEOUT = Duration.ofMillis(25000);
+    private static final String HEDGE = "nager.hedge"; // context flag of a hedge's exchange, which is timed as its attempt's duplicate
     private final WebClient webClient;
     private final RateLimiterRegistry rateLimiterRegistry;
+    // single-flight: one upstream exchange per year:country, shared by every concurrent subscriber
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter originatedCalls;
+    private final Counter coalescedCalls;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    // upstream validators plus a weak reference to the list they describe, so a refetch can be a conditional GET that keeps
+    // the same instance; only the publicHolidays cache keeps lists alive, and once it has dropped one the refetch is plain
+    private final Cache<String, Validated> validated;
+    private final Map<String, Counter> revalidations = new ConcurrentHashMap<>();
+    private final CountryRegistry countries = new CountryRegistry();
+    // upstream 4xx per year:country, answered locally for a short while instead of asking again
+    private final Cache<String, Throwable> failures;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    private record Validated(String etag, String lastModified, String hash, WeakReference<List<PublicHoliday>> holidays) { }
+    private record Fetched(int status, List<PublicHoliday> holidays, Object event) { }
+    // background (in the adaptive limiter's queue) only until a foreground caller joins
+    private record Flight(Mono<List<PublicHoliday>> holidays, AtomicBoolean background, Deadline deadline) { }
+
+    @Autowired(required = false) private OfflineHolidayDataset offline; // app.offline.enabled: never call upstream
+    @Autowired(required = false) private PeerCache peers; // app.peers.enabled: ask the owning instance first
+    @Autowired(required = false) private HedgePolicy hedging; // app.hedging.enabled: duplicate slow calls
+    @Autowired(required = false) private AdaptiveConcurrencyLimiter concurrencyLimiter; // app.adaptive-limit.enabled
+    private final Map<String, Counter> hedges = new ConcurrentHashMap<>();
 
     @Value("${app.webclient.retry.max-retries:2}") private int maxRetries;
     @Value("${app.webclient.retry.backoff-ms:300}") private long backoffMs;
     @Value("${app.webclient.retry.jitter:0.2}") private double jitter;
+    @Value("${app.countries.retry-ms:60000}") private long countriesRetryMs;
 
-    public NagerDateReactiveClient(WebClient webClient, RateLimiterRegistry rateLimiterRegistry) {
+    public NagerDateReactiveClient(WebClient webClient, RateLimiterRegistry rateLimiterRegistry, MeterRegistry meterRegistry,
+                                   ObjectMapper objectMapper, ApplicationEventPublisher events,
+                                   @Value("${app.revalidation.max-entries:50000}") long maxValidatedEntries,
+                                   @Value("${app.negative-cache.ttl-ms:60000}") long negativeTtlMs) {
         this.webClient = webClient;
         this.rateLimiterRegistry = rateLimiterRegistry;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.validated = Caffeine.newBuilder().maximumSize(maxValidatedEntries).build();
+        this.failures = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(Duration.ofMillis(negativeTtlMs)).build();
+        Gauge.builder("nager.countries.known", countries, CountryRegistry::size)
+                .description("Country codes in the local registry; 0 lets every code through").register(meterRegistry);
+        this.originatedCalls = Counter.builder("nager.client.singleflight").tag("result", "originated")
+                .description("Upstream fetches started").register(meterRegistry);
+        this.coalescedCalls = Counter.builder("nager.client.singleflight").tag("result", "coalesced")
+                .description("Fetches that joined an in-flight upstream exchange").register(meterRegistry);
     }
 
     @Cacheable(cacheNames = "publicHolidays", key = "#year + ':' + #countryCode")
     public Mono<List<PublicHoliday>> getPublicHolidays(int year, String countryCode) {
-        String path = "/PublicHolidays/" + year + "/" + countryCode;
+        return fetchPublicHolidays(year, countryCode);
+    }
+
+    /** Same cache entry as {@link #getPublicHolidays}; a miss is loaded as background traffic (warm-up). */
+    @Cacheable(cacheNames = "publicHolidays", key = "#year + ':' + #countryCode")
+    public Mono<List<PublicHoliday>> getPublicHolidaysInBackground(int year, String countryCode) {
+        return AdaptiveConcurrencyLimiter.inBackground(fetchPublicHolidays(year, countryCode));
+    }
 
-        Retry retry = Retry.backoff(maxRetries, Duration.ofMillis(backoffMs))
-                .jitter(jitter)
-                .filter(this::isRetriable)
-                .onRetryExhaustedThrow((spec, sig) -> sig.failure());
+    /** Uncached variant used by the cache itself for background refreshes. */
+    public Mono<List<PublicHoliday>> fetchPublicHolidays(int year, String countryCode) {
+        return load(year, countryCode, true);
+    }
 
-        return webClient.get().uri(path)
+    /** Same cache entry as {@link #getPublicHolidays}; a miss is loaded from Nager.Date, never from a peer (peer requests). */
+    @Cacheable(cacheNames = "publicHolidays", key = "#year + ':' + #countryCode")
+    public Mono<List<PublicHoliday>> getPublicHolidaysForPeer(int year, String countryCode) {
+        return load(year, countryCode, false);
+    }
+
+    private Mono<List<PublicHoliday>> load(int year, String countryCode, boolean viaPeer) {
+        if (offline != null) return offline.publicHolidays(year, countryCode);
+        String key = year + ":" + countryCode;
+        // every subscriber waits within its own deadline; the shared exchange runs until the latest of them, and is
+        // cancelled once the last subscriber has gone
+        return Deadline.enforce(Mono.deferContextual(ctx -> {
+            Deadline deadline = Deadline.from(ctx);
+            boolean background = AdaptiveConcurrencyLimiter.isBackground(ctx);
+            if (countries.shouldLoad()) reloadCountries().subscribe();
+            if (!countries.supports(countryCode)) {
+                rejected("unknown_country");
+                return Mono.error(unsupportedCountry());
+            }
+            Throwable failure = failures.getIfPresent(key);
+            if (failure != null) {
+                rejected("negative_cache");
+                return Mono.error(copy(failure));
+            }
+            Flight existing = inFlight.get(key);
+            if (existing == null) {
+                // removed before the result reaches subscribers, so a call made right after one completes starts a new
+                // exchange; only this exchange's own entry, never one a later caller has installed since
+                AtomicReference<Flight> self = new AtomicReference<>();
+                AtomicBoolean priority = new AtomicBoolean(background);
+                Deadline latest = deadline == null ? null : deadline.shared();
+                Mono<List<PublicHoliday>> shared = (viaPeer && peers != null ? fromPeer(year, countryCode) : fetch(year, countryCode))
+                        .doOnError(e -> { if (isCacheableFailure(e)) failures.put(key, e); })
+                        .doOnEach(signal -> inFlight.remove(key, self.get()))
+                        .doOnCancel(() -> inFlight.remove(key, self.get()))
+                        // share() subscribes with the first caller's context; its deadline and priority become the flight's
+                        .contextWrite(c -> AdaptiveConcurrencyLimiter.sharedBy(latest == null ? Deadline.removeFrom(c) : latest.putIn(c), priority))
+                        .share();
+                Flight flight = new Flight(shared, priority, latest);
+                self.set(flight);
+                existing = inFlight.putIfAbsent(key, flight);
+                if (existing == null) {
+                    originatedCalls.increment();
+                    return shared;
+                }
+            }
+            coalescedCalls.increment();
+            if (existing.deadline != null) existing.deadline.extendTo(deadline);
+            if (!background && concurrencyLimiter != null) concurrencyLimiter.promote(existing.background);
+            return existing.holidays;
+        }));
+    }
+
+    @Cacheable(cacheNames = "availableCountries", key = "'all'")
+    public Mono<List<AvailableCountry>> getAvailableCountries() {
+        if (offline != null) return offline.availableCountries();
+        return fetchList("/AvailableCountries", AvailableCountry.class).doOnNext(countries::update);
+    }
+
+    /** Reloads the supported-country registry; the first holiday fetch also starts a load while none has succeeded. */
+    @Scheduled(initialDelayString = "${app.countries.refresh-ms:21600000}", fixedDelayString = "${app.countries.refresh-ms:21600000}")
+    public void refreshCountries() {
+        if (offline == null) reloadCountries().subscribe();
+    }
+
+    // at most one load at a time; a failure or an empty list keeps the previous codes and holds off lazy reloads for
+    // app.countries.retry-ms
+    Mono<Void> reloadCountries() {
+        if (!countries.tryStartLoad()) return Mono.empty();
+        return fetchList("/AvailableCountries", AvailableCountry.class)
+                .defaultIfEmpty(List.of())
+                .doOnNext(list -> {
+                    if (countries.loaded(list)) return;
+                    countries.loadFailed(Duration.ofMillis(countriesRetryMs));
+                    log.warn("Country registry not refreshed, /AvailableCountries listed no codes; keeping {}", countries.size());
+                })
+                .doOnError(e -> {
+                    countries.loadFailed(Duration.ofMillis(countriesRetryMs));
+                    log.warn("Country registry not refreshed, keeping {} codes: {}", countries.size(), e.toString());
+                })
+                .doOnCancel(() -> countries.loadFailed(Duration.ofMillis(countriesRetryMs)))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    // the owner's copy goes through the same change detection as an upstream body and brings the upstream validators the
+    // owner holds, so the next refetch from Nager.Date can still be conditional; no answer falls back to Nager.Date
+    private Mono<List<PublicHoliday>> fromPeer(int year, String countryCode) {
+        return peers.fromOwner(year, countryCode)
+                .map(response -> {
+                    Validated previous = validated.getIfPresent(year + ":" + countryCode);
+                    HttpHeaders headers = new HttpHeaders();
+                    String etag = response.getHeaders().getFirst(PeerCache.ETAG_HEADER);
+                    String lastModified = response.getHeaders().getFirst(PeerCache.LAST_MODIFIED_HEADER);
+                    if (etag != null) headers.set(HttpHeaders.ETAG, etag);
+                    if (lastModified != null) headers.set(HttpHeaders.LAST_MODIFIED, lastModified);
+                    byte[] body = response.getBody() == null ? new byte[0] : response.getBody();
+                    return accept(year, countryCode, HttpStatus.OK.value(), previous, previous == null ? null : previous.holidays.get(), headers, body);
+                })
+                .flatMap(this::delivered)
+                .switchIfEmpty(Mono.defer(() -> fetch(year, countryCode)));
+    }
+
+    private Mono<List<PublicHoliday>> fetch(int year, String countryCode) {
+        String uriTemplate = "/PublicHolidays/{year}/{countryCode}";
+        String key = year + ":" + countryCode;
+        return exchange(uriTemplate, () -> {
+                    Validated previous = validated.getIfPresent(key);
+                    List<PublicHoliday> current = previous == null ? null : previous.holidays.get();
+                    return webClient.get().uri(uriTemplate, year, countryCode)
+                            .headers(h -> {
+                                if (current == null) return; // nothing left to keep: ask unconditionally
+                                if (previous.etag != null) h.set(HttpHeaders.IF_NONE_MATCH, previous.etag);
+                                if (previous.lastModified != null) h.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified);
+                            })
+                            .exchangeToMono(response -> {
+                                int status = response.statusCode().value();
+                                if (status == HttpStatus.NOT_MODIFIED.value() && current != null) {
+                                    revalidation("not_modified");
+                                    return response.releaseBody().thenReturn(
+                                            new Fetched(status, current, new PublicHolidaysUnchangedEvent(year, countryCode)));
+                                }
+                                if (!response.statusCode().is2xxSuccessful()) return response.createException().flatMap(Mono::error);
+                                HttpHeaders headers = response.headers().asHttpHeaders();
+                                return response.bodyToMono(byte[].class).defaultIfEmpty(new byte[0])
+                                        .map(body -> accept(year, countryCode, status, previous, current, headers, body));
+                            });
+                }, fetched -> String.valueOf(fetched.status))
+                .flatMap(this::delivered)
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.error(unsupportedCountry()));
+    }
+
+    // announced once subscribers, the cache among them, hold the list, so entries rebuilt in response see it
+    private Mono<List<PublicHoliday>> delivered(Fetched fetched) {
+        return fetched.event == null ? Mono.just(fetched.holidays)
+                : Mono.just(fetched.holidays).doAfterTerminate(() -> events.publishEvent(fetched.event));
+    }
+
+    private static ResponseStatusException unsupportedCountry() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Unsupported country code");
+    }
+
+    // definite client errors only: 408 and 429 say "not now" rather than "never"
+    private static boolean isCacheableFailure(Throwable t) {
+        HttpStatusCode status = t instanceof ResponseStatusException rse ? rse.getStatusCode()
+                : t instanceof WebClientResponseException wcre ? wcre.getStatusCode() : null;
+        return status != null && status.is4xxClientError()
+                && status.value() != HttpStatus.REQUEST_TIMEOUT.value() && status.value() != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    // a fresh instance per answer, since subscribers (block() among them) attach suppressed exceptions to what they receive
+    private static Throwable copy(Throwable t) {
+        if (t instanceof WebClientResponseException wcre) {
+            return WebClientResponseException.create(wcre.getStatusCode(), wcre.getStatusText(), wcre.getHeaders(),
+                    wcre.getResponseBodyAsByteArray(), null, wcre.getRequest());
+        }
+        ResponseStatusException rse = (ResponseStatusException) t;
+        return new ResponseStatusException(rse.getStatusCode(), rse.getReason());
+    }
+
+    private void rejected(String reason) {
+        rejections.computeIfAbsent(reason, r -> Counter.builder("nager.client.rejected").tag("reason", r)
+                .description("Holiday fetches answered locally with an error instead of calling upstream").register(meterRegistry)).increment();
+    }
+
+    // an unchanged list keeps the current one if still held (and everything derived from it); first loads announce nothing.
+    // The hash is taken over this service's own encoding of the decoded list, so an upstream body and a peer's copy of it
+    // compare equal however each was formatted.
+    private Fetched accept(int year, String countryCode, int status, Validated previous, List<PublicHoliday> current,
+                           HttpHeaders headers, byte[] body) {
+        List<PublicHoliday> decoded = decode(year, countryCode, body);
+        String hash = hash(year, countryCode, decoded);
+        List<PublicHoliday> holidays = decoded;
+        Object event = null;
+        if (previous != null && hash.equals(previous.hash)) {
+            revalidation("unchanged");
+            if (current != null) holidays = current;
+            event = new PublicHolidaysUnchangedEvent(year, countryCode);
+        } else {
+            if (previous != null) {
+                revalidation("changed");
+                log.info("Public holidays {}/{} changed upstream", year, countryCode);
+                event = new PublicHolidaysChangedEvent(year, countryCode);
+            }
+        }
+        validated.put(year + ":" + countryCode,
+                new Validated(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), hash, new WeakReference<>(holidays)));
+        return new Fetched(status, holidays, event);
+    }
+
+    /** Upstream ETag and Last-Modified behind {@code holidays}, for peers to keep; empty once a later fetch replaced them. */
+    public HttpHeaders upstreamValidators(int year, String countryCode, List<PublicHoliday> holidays) {
+        HttpHeaders headers = new HttpHeaders();
+        Validated v = validated.getIfPresent(year + ":" + countryCode);
+        if (v == null || v.holidays.get() != holidays) return headers;
+        if (v.etag != null) headers.set(PeerCache.ETAG_HEADER, v.etag);
+        if (v.lastModified != null) headers.set(PeerCache.LAST_MODIFIED_HEADER, v.lastModified);
+        return headers;
+    }
+
+    private String hash(int year, String countryCode, List<PublicHoliday> holidays) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(holidays));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unencodable holidays for " + year + "/" + countryCode, e);
+        }
+    }
+
+    private List<PublicHoliday> decode(int year, String countryCode, byte[] body) {
+        try {
+            return body.length == 0 ? List.of() : objectMapper.readValue(body, new TypeReference<List<PublicHoliday>>() { });
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable Nager response for " + year + "/" + countryCode, e);
+        }
+    }
+
+    private <T> Mono<List<T>> fetchList(String uriTemplate, Class<T> type, Object... uriVariables) {
+        return exchange(uriTemplate, () -> webClient.get().uri(uriTemplate, uriVariables)
                 .retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError, ClientResponse::createException)
                 .onStatus(HttpStatusCode::is5xxServerError, ClientResponse::createException)
-                .bodyToFlux(PublicHoliday.class)
-                .collectList()
-                .transformDeferred(RateLimiterOperator.of(rateLimiterRegistry.rateLimiter("nager")))
-                .timeout(Duration.ofMillis(25000))
-                .retryWhen(retry)
-                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.error(new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Unsupported country code"
-                )))
+                .bodyToFlux(type)
+                .collectList(), list -> "200");
+    }
+
+    // one rate-limited, timed, retried upstream call; the supplier builds a fresh exchange per attempt. Under a deadline
+    // (a flight's, moved out as callers join) each attempt ends when it passes and a retry whose backoff it would not
+    // leave room for is not made.
+    private <T> Mono<T> exchange(String uriTemplate, Supplier<Mono<T>> call, Function<T, String> status) {
+        AtomicInteger attempts = new AtomicInteger();
+        RateLimiter limiter = rateLimiterRegistry.rateLimiter("nager");
+        Mono<T> attempt = Mono.deferContextual(ctx -> {
+                    boolean hedge = ctx.getOrDefault(HEDGE, false);
+                    return timed(uriTemplate, hedge ? attempts.get() - 1 : attempts.getAndIncrement(), hedge, call.get(), status);
+                })
+                .transformDeferred(RateLimiterOperator.of(limiter));
+        if (concurrencyLimiter != null) attempt = concurrencyLimiter.limit(attempt);
+        Mono<T> hedgedAttempt = hedging == null ? attempt : hedged(uriTemplate, attempt, limiter);
+        return Mono.deferContextual(ctx -> {
+                    Deadline deadline = Deadline.from(ctx);
+                    AtomicInteger retries = new AtomicInteger();
+                    Retry retry = Retry.backoff(maxRetries, Duration.ofMillis(backoffMs))
+                            .jitter(jitter)
+                            .filter(t -> isRetriable(t)
+                                    && (deadline == null || deadline.remaining().toMillis() > backoffMs << Math.min(retries.getAndIncrement(), 16)))
+                            .onRetryExhaustedThrow((spec, sig) -> sig.failure());
+                    return Mono.defer(() -> {
+                                if (deadline == null) return hedgedAttempt.timeout(ATTEMPT_TIMEOUT);
+                                if (deadline.expired()) return Mono.<T>error(Deadline.exceeded());
+                                return hedgedAttempt.timeout(Mono.firstWithSignal(Mono.delay(ATTEMPT_TIMEOUT), deadline.passes()));
+                            })
+                            .retryWhen(retry)
+                            .onErrorMap(TimeoutException.class, e -> deadline != null && deadline.expired() ? Deadline.exceeded() : e);
+                })
                 .doOnError(ex -> log.error("Nager API call failed: {}", ex.toString()));
     }
 
+    // past the URI's tracked percentile one duplicate goes out if the budget and a free permit allow it; the first value
+    // wins and the other exchange is cancelled. A failed hedge is ignored, a failed primary fails the attempt as before.
+    // A primary cancelled by its hedge, the attempt timeout or the deadline is sampled at what it ran so far: a lower bound,
+    // but without it the window would only see calls fast enough to finish and the percentile would drift low.
+    // A losing hedge started late and says nothing about the tail, so it is not sampled.
+    private <T> Mono<T> hedged(String uri, Mono<T> attempt, RateLimiter limiter) {
+        Mono<T> measured = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doOnNext(v -> hedging.record(uri, System.nanoTime() - start))
+                    .doOnCancel(() -> hedging.record(uri, System.nanoTime() - start));
+        });
+        Mono<T> duplicateAttempt = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doOnNext(v -> hedging.record(uri, System.nanoTime() - start));
+        }).contextWrite(ctx -> ctx.put(HEDGE, true));
+        return Mono.defer(() -> {
+            hedging.primary();
+            Duration delay = hedging.delay(uri);
+            if (delay == null) return measured;
+            Mono<T> duplicate = Mono.delay(delay).flatMap(tick -> {
+                if (limiter.getMetrics().getAvailablePermissions() <= 0 || !hedging.tryAcquire()) {
+                    hedge("skipped");
+                    return Mono.<T>never();
+                }
+                hedge("sent");
+                return duplicateAttempt.doOnNext(v -> hedge("won")).onErrorResume(e -> Mono.never());
+            });
+            return Mono.firstWithSignal(measured, duplicate);
+        });
+    }
+
+    private void hedge(String outcome) {
+        hedges.computeIfAbsent(outcome, o -> Counter.builder("nager.client.hedges").tag("outcome", o)
+                .description("Duplicate requests for slow upstream calls: sent, won the race, or skipped for budget or permits")
+                .register(meterRegistry)).increment();
+    }
+
+    private void revalidation(String result) {
+        revalidations.computeIfAbsent(result, r -> Counter.builder("nager.client.revalidation").tag("result", r)
+                .description("Refetches of a known country-year by outcome").register(meterRegistry)).increment();
+    }
+
+    /** Records one upstream exchange (only exchanges that got a rate-limiter permit reach this point); a hedge shares its attempt's index. */
+    private <T> Mono<T> timed(String uri, int attempt, boolean hedge, Mono<T> exchange, Function<T, String> status) {
+        long start = System.nanoTime();
+        return exchange
+                .doOnSuccess(v -> recordAttempt(uri, start, attempt, hedge, "SUCCESS", v == null ? "200" : status.apply(v)))
+                .doOnError(ex -> {
+                    if (ex instanceof WebClientResponseException wcre) {
+                        recordAttempt(uri, start, attempt, hedge, wcre.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR",
+                                String.valueOf(wcre.getStatusCode().value()));
+                    } else {
+                        recordAttempt(uri, start, attempt, hedge, "ERROR", "NONE");
+                    }
+                })
+                .doOnCancel(() -> recordAttempt(uri, start, attempt, hedge, "CANCELLED", "NONE"));
+    }
+
+    private void recordAttempt(String uri, long startNanos, int attempt, boolean hedge, String outcome, String status) {
+        Timer.builder("nager.client.requests")
+                .description("Nager.Date API exchanges, one sample per attempt and one per hedge")
+                .tags("uri", uri, "outcome", outcome, "status", status, "attempt", String.valueOf(attempt), "hedge", String.valueOf(hedge))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
     private boolean isRetriable(Throwable t) {
         // Don’t retry 4xx (NotFound, BadRequest, etc.)
         if (t instanceof WebClientResponseException wcre) {
             int status = wcre.getStatusCode().value();
             return status >= 500 && status < 600; // retry 5xx only on server errors
         }
-        // Retry on non-HTTP transient errors (timeouts, connect resets, etc.)
-        return !(t instanceof NoSuchElementException);
+        // Retry on non-HTTP transient errors (timeouts, connect resets, etc.), not on our own load shedding
+        return !(t instanceof NoSuchElementException) && !(t instanceof ConcurrencyLimitExceededException);
 
     }
 }
@@ -0,0 +1,154 @@
+package com.example.nager.client;
+
+import com.example.nager.cache.HolidaySnapshotCodec;
+import com.example.nager.model.AvailableCountry;
+import com.example.nager.model.PublicHoliday;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline mode: every country-year is loaded at startup from a local dataset file and the client serves
+ * from it instead of calling Nager.Date. The dataset is the binary snapshot format; a JSON import (a flat
+ * array of Nager {@code PublicHoliday} objects, each carrying its {@code countryCode}) is converted to it
+ * first whenever the JSON is newer than the binary file.
+ */
+@Component
+@ConditionalOnProperty(name = "app.offline.enabled", havingValue = "true")
+public class OfflineHolidayDataset implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(OfflineHolidayDataset.class);
+    private final ObjectMapper objectMapper;
+    private final Timer loadTimer;
+    private final AtomicLong entryCount = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private volatile Map<String, List<PublicHoliday>> entries = Map.of();
+    private volatile Set<String> countryCodes = Set.of();
+    private volatile List<AvailableCountry> countries = List.of();
+
+    @Value("${app.offline.dataset:data/holidays.dataset}") private Path dataset;
+    @Value("${app.offline.import:}") private String importJson;
+
+    public OfflineHolidayDataset(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.loadTimer = Timer.builder("holiday.offline.load").description("Time to load the offline holiday dataset").register(meterRegistry);
+        Gauge.builder("holiday.offline.entries", entryCount, AtomicLong::get).description("Country-years in the offline dataset").register(meterRegistry);
+        Gauge.builder("holiday.offline.heap", allocatedBytes, AtomicLong::get).baseUnit("bytes")
+                .description("Heap allocated while loading the offline dataset").register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!importJson.isBlank()) convertIfNewer(Path.of(importJson));
+        if (!Files.isRegularFile(dataset)) throw new IllegalStateException("Offline mode enabled but no dataset at " + dataset.toAbsolutePath());
+        load();
+    }
+
+    public Mono<List<PublicHoliday>> publicHolidays(int year, String countryCode) {
+        List<PublicHoliday> list = entries.get(year + ":" + countryCode);
+        if (list != null) return Mono.just(list);
+        if (!countryCodes.contains(countryCode)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unsupported country code: " + countryCode));
+        }
+        return Mono.just(List.of()); // a year the dataset does not cover
+    }
+
+    public Mono<List<AvailableCountry>> availableCountries() {
+        return Mono.just(countries);
+    }
+
+    private void load() throws IOException {
+        long allocatedBefore = threadAllocatedBytes();
+        long start = System.nanoTime();
+        HolidaySnapshotCodec.Snapshot snapshot;
+        long size;
+        try (FileChannel channel = FileChannel.open(dataset, StandardOpenOption.READ)) {
+            size = channel.size();
+            snapshot = HolidaySnapshotCodec.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        Map<String, List<PublicHoliday>> loaded = new HashMap<>(snapshot.entries().size() * 2);
+        Set<String> codes = new TreeSet<>();
+        snapshot.entries().forEach((key, list) -> {
+            loaded.put(key, List.copyOf(list));
+            codes.add(key.substring(key.indexOf(':') + 1));
+        });
+        List<AvailableCountry> available = new ArrayList<>(codes.size());
+        for (String cc : codes) {
+            AvailableCountry country = new AvailableCountry();
+            country.setCountryCode(cc);
+            country.setName(Locale.of("", cc).getDisplayCountry(Locale.ENGLISH));
+            available.add(country);
+        }
+        entries = loaded;
+        countryCodes = Set.copyOf(codes);
+        countries = List.copyOf(available);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadAllocatedBytes() - allocatedBefore;
+        loadTimer.record(Duration.ofNanos(elapsed));
+        entryCount.set(loaded.size());
+        allocatedBytes.set(allocated);
+        log.info("Offline dataset {}: {} countries, {} country-years ({} bytes on disk) loaded in {} ms, {} KiB heap allocated (~{} bytes per country-year)",
+                dataset, codes.size(), loaded.size(), size, elapsed / 1_000_000, allocated >> 10, loaded.isEmpty() ? 0 : allocated / loaded.size());
+    }
+
+    private void convertIfNewer(Path json) throws IOException {
+        if (Files.isRegularFile(dataset) && Files.getLastModifiedTime(dataset).compareTo(Files.getLastModifiedTime(json)) >= 0) return;
+        long start = System.nanoTime();
+        List<PublicHoliday> holidays;
+        try (InputStream in = Files.newInputStream(json)) {
+            holidays = objectMapper.readValue(in, new TypeReference<List<PublicHoliday>>() { });
+        }
+        Map<String, List<PublicHoliday>> grouped = new HashMap<>();
+        for (PublicHoliday h : holidays) {
+            if (h.getDate() == null || h.getCountryCode() == null) continue;
+            grouped.computeIfAbsent(h.getDate().getYear() + ":" + h.getCountryCode().toUpperCase(), k -> new ArrayList<>()).add(h);
+        }
+        Path parent = dataset.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, dataset.getFileName().toString(), ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            HolidaySnapshotCodec.write(grouped, System.currentTimeMillis(), out);
+        } catch (IOException | UncheckedIOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, dataset, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Converted {} ({} holidays, {} bytes) to {} ({} bytes) in {} ms", json, holidays.size(), Files.size(json),
+                dataset, Files.size(dataset), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static long threadAllocatedBytes() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                ? bean.getThreadAllocatedBytes(Thread.currentThread().threadId()) : 0;
+    }
+}
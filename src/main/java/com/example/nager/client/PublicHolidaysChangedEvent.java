@@ -0,0 +1,7 @@
+package com.example.nager.client;
+
+/**
+ * Published when a revalidated country-year came back with different content, so values derived from the
+ * previous list are stale. Not published for first loads or for 304/unchanged responses.
+ */
+public record PublicHolidaysChangedEvent(int year, String countryCode) { }
@@ -0,0 +1,4 @@
+package com.example.nager.client;
+
+/** Published when a refetch of a known country-year was answered with 304 or an identical body. */
+public record PublicHolidaysUnchangedEvent(int year, String countryCode) { }
@@ -0,0 +1,20 @@
+package com.example.nager.config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import java.util.*;
+@Configuration
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private int capacity = 256;                                  // cost units in flight at once
+    private long retryAfterSeconds = 1;                          // Retry-After on a 503
+    private Map<String, Integer> costs = new LinkedHashMap<>(); // path prefix -> fixed cost; the longest matching prefix wins
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    public void setRetryAfterSeconds(long retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+    public Map<String, Integer> getCosts() { return costs; }
+    public void setCosts(Map<String, Integer> costs) { this.costs = costs; }
+}
@@ -1,23 +1,87 @@
 package com.example.nager.config;
+import com.example.nager.client.AdaptiveConcurrencyLimiter;
+import com.example.nager.client.NagerDateReactiveClient;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 @Configuration
 @EnableCaching
 public class CacheConfig {
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+    public static final String PUBLIC_HOLIDAYS = "publicHolidays";
+    static final int ENTRY_OVERHEAD_BYTES = 136; // cache node, "year:CC" key, list and its array header
+    static final int HOLIDAY_BYTES = 44;         // PublicHoliday object plus its list slot
     @Value("#{'${spring.cache.cache-names}'.split(',')}")
     private List<String> cacheNames;
+    @Value("${spring.cache.caffeine.spec:}")
+    private String spec;
     @Value("${app.cache.async:true}")
     private boolean async;
+    @Value("${app.cache.public-holidays.refresh-ahead:true}")
+    private boolean refreshAhead;
+    @Value("${app.cache.public-holidays.maximum-weight-bytes:33554432}")
+    private long publicHolidaysMaxWeight;
+    @Value("${app.cache.public-holidays.refresh-after-ms:18000000}")
+    private long refreshAfterMs;
+    @Value("${app.cache.public-holidays.max-staleness-ms:86400000}")
+    private long maxStalenessMs;
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ObjectProvider<NagerDateReactiveClient> client) {
         CaffeineCacheManager cm = new CaffeineCacheManager();
-        cm.setCacheNames(cacheNames);
+        if (!spec.isBlank()) cm.setCacheSpecification(spec);
         cm.setAsyncCacheMode(async);
+        cm.setCacheNames(cacheNames);
+        // publicHolidays is bounded by estimated bytes; names and county lists are shared between holidays, so only
+        // the per-holiday objects and per-entry overhead count
+        Caffeine<Object, Object> publicHolidays = Caffeine.newBuilder()
+                .maximumWeight(publicHolidaysMaxWeight)
+                .weigher(CacheConfig::weigh)
+                .recordStats();
+        if (async && refreshAhead) {
+            // refresh-ahead: hits past refresh-after return the current value and trigger a background reload;
+            // a failed reload keeps serving the stale value until it is max-staleness past the refresh point
+            cm.registerCustomCache(PUBLIC_HOLIDAYS, publicHolidays
+                    .refreshAfterWrite(Duration.ofMillis(refreshAfterMs))
+                    .expireAfterWrite(Duration.ofMillis(refreshAfterMs + maxStalenessMs))
+                    .buildAsync(publicHolidaysLoader(client)));
+        } else if (async) {
+            cm.registerCustomCache(PUBLIC_HOLIDAYS, publicHolidays.expireAfterWrite(Duration.ofMillis(refreshAfterMs)).buildAsync());
+        } else {
+            cm.registerCustomCache(PUBLIC_HOLIDAYS, publicHolidays.expireAfterWrite(Duration.ofMillis(refreshAfterMs)).build());
+        }
         return cm;
     }
+    static int weigh(Object key, Object value) {
+        return ENTRY_OVERHEAD_BYTES + (value instanceof List<?> list ? list.size() * HOLIDAY_BYTES : 0);
+    }
+    private AsyncCacheLoader<Object, Object> publicHolidaysLoader(ObjectProvider<NagerDateReactiveClient> client) {
+        return new AsyncCacheLoader<>() {
+            @Override
+            public CompletableFuture<Object> asyncLoad(Object key, Executor executor) {
+                return load(key).toFuture();
+            }
+            @Override
+            public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor executor) {
+                log.debug("Refreshing {} entry {} ahead of expiry", PUBLIC_HOLIDAYS, key);
+                // queued behind live requests when upstream capacity is short
+                return AdaptiveConcurrencyLimiter.inBackground(load(key)).toFuture();
+            }
+            private Mono<Object> load(Object key) {
+                String[] parts = key.toString().split(":");
+                return client.getObject().fetchPublicHolidays(Integer.parseInt(parts[0]), parts[1]).map(list -> list);
+            }
+        };
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.nager.config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import java.util.*;
+@Configuration
+@ConfigurationProperties(prefix = "app.deadline")
+public class DeadlineProperties {
+    private boolean enabled = true;
+    private String header = "X-Request-Timeout-Ms";      // budget the caller grants, in milliseconds
+    private long defaultMs = 10000;                        // when neither the header nor a path budget applies
+    private long maxMs = 30000;                            // header values are capped at this
+    private Map<String, Long> paths = new LinkedHashMap<>(); // path prefix -> budget; the longest matching prefix wins
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getHeader() { return header; }
+    public void setHeader(String header) { this.header = header; }
+    public long getDefaultMs() { return defaultMs; }
+    public void setDefaultMs(long defaultMs) { this.defaultMs = defaultMs; }
+    public long getMaxMs() { return maxMs; }
+    public void setMaxMs(long maxMs) { this.maxMs = maxMs; }
+    public Map<String, Long> getPaths() { return paths; }
+    public void setPaths(Map<String, Long> paths) { this.paths = paths; }
+}
@@ -0,0 +1,22 @@
+package com.example.nager.config;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+@Configuration
+public class MetricsConfig {
+    // available permissions / waiting threads gauges come from resilience4j-micrometer; this adds the outcome of each acquire
+    @Bean
+    public MeterBinder nagerRateLimiterMetrics(RateLimiterRegistry rateLimiterRegistry) {
+        return registry -> {
+            RateLimiter limiter = rateLimiterRegistry.rateLimiter("nager");
+            Counter permitted = Counter.builder("nager.ratelimiter.calls").tag("result", "permitted")
+                    .description("Permits granted by the nager rate limiter").register(registry);
+            Counter rejected = Counter.builder("nager.ratelimiter.calls").tag("result", "rejected")
+                    .description("Calls rejected by the nager rate limiter").register(registry);
+            limiter.getEventPublisher().onSuccess(e -> permitted.increment()).onFailure(e -> rejected.increment());
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.nager.config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import java.util.*;
+@Configuration
+@ConfigurationProperties(prefix = "app.peers")
+public class PeerProperties {
+    private boolean enabled = false;
+    private String self = "";                        // this instance's base URL exactly as listed in members
+    private List<String> members = new ArrayList<>(); // base URLs of every instance, this one included
+    private int virtualNodes = 128;                  // ring points per member; more points, more even ownership
+    private long timeoutMs = 500;                    // an owner slower than this is skipped in favour of Nager.Date
+    private String token = "";                       // shared secret peers send in X-Peer-Token; blank refuses them all
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getSelf() { return self; }
+    public void setSelf(String self) { this.self = self; }
+    public List<String> getMembers() { return members; }
+    public void setMembers(List<String> members) { this.members = members; }
+    public int getVirtualNodes() { return virtualNodes; }
+    public void setVirtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; }
+    public long getTimeoutMs() { return timeoutMs; }
+    public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+}
@@ -0,0 +1,26 @@
+package com.example.nager.config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import java.util.*;
+@Configuration
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+    private boolean enabled = false;
+    private List<String> countries = List.of("all"); // "all" = every country in /AvailableCountries
+    private int yearsBefore = 1;                       // relative to the current year
+    private int yearsAfter = 1;
+    private int concurrency = 4;
+    private long deadlineMs = 60000;                    // readiness turns UP at the latest after this
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public List<String> getCountries() { return countries; }
+    public void setCountries(List<String> countries) { this.countries = countries; }
+    public int getYearsBefore() { return yearsBefore; }
+    public void setYearsBefore(int yearsBefore) { this.yearsBefore = yearsBefore; }
+    public int getYearsAfter() { return yearsAfter; }
+    public void setYearsAfter(int yearsAfter) { this.yearsAfter = yearsAfter; }
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+    public long getDeadlineMs() { return deadlineMs; }
+    public void setDeadlineMs(long deadlineMs) { this.deadlineMs = deadlineMs; }
+}
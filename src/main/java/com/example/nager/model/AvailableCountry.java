@@ -0,0 +1,8 @@
+package com.example.nager.model;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AvailableCountry {
+    private String countryCode; private String name;
+    public String getCountryCode() { return countryCode; } public void setCountryCode(String countryCode) { this.countryCode = countryCode; }
+    public String getName() { return name; } public void setName(String name) { this.name = name; }
+}
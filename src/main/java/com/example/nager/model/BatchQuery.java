@@ -0,0 +1,15 @@
+package com.example.nager.model;
+import java.time.LocalDate; import java.util.List;
+/** One query of a batch; {@code type} is last-3, last-n, next-n, weekday-count or common-dates and selects the fields used. */
+public class BatchQuery {
+    private String type; private String countryCode; private LocalDate date; private Integer n;
+    private Integer year; private List<String> countries; private String countryA; private String countryB;
+    public String getType() { return type; } public void setType(String type) { this.type = type; }
+    public String getCountryCode() { return countryCode; } public void setCountryCode(String countryCode) { this.countryCode = countryCode; }
+    public LocalDate getDate() { return date; } public void setDate(LocalDate date) { this.date = date; }
+    public Integer getN() { return n; } public void setN(Integer n) { this.n = n; }
+    public Integer getYear() { return year; } public void setYear(Integer year) { this.year = year; }
+    public List<String> getCountries() { return countries; } public void setCountries(List<String> countries) { this.countries = countries; }
+    public String getCountryA() { return countryA; } public void setCountryA(String countryA) { this.countryA = countryA; }
+    public String getCountryB() { return countryB; } public void setCountryB(String countryB) { this.countryB = countryB; }
+}
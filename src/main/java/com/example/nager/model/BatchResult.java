@@ -0,0 +1,14 @@
+package com.example.nager.model;
+import com.fasterxml.jackson.annotation.JsonInclude;
+/** The answer to one batch query: either {@code result} or {@code status} and {@code error}. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+    private final String type; private final Object result; private final Integer status; private final String error;
+    private BatchResult(String type, Object result, Integer status, String error) { this.type = type; this.result = result; this.status = status; this.error = error; }
+    public static BatchResult ok(String type, Object result) { return new BatchResult(type, result, null, null); }
+    public static BatchResult failed(String type, int status, String error) { return new BatchResult(type, null, status, error); }
+    public String getType() { return type; }
+    public Object getResult() { return result; }
+    public Integer getStatus() { return status; }
+    public String getError() { return error; }
+}
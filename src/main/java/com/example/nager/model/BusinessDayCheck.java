@@ -0,0 +1,9 @@
+package com.example.nager.model;
+import java.time.LocalDate;
+public class BusinessDayCheck {
+    private String countryCode; private LocalDate date; private boolean businessDay;
+    public BusinessDayCheck(String countryCode, LocalDate date, boolean businessDay) { this.countryCode = countryCode; this.date = date; this.businessDay = businessDay; }
+    public String getCountryCode() { return countryCode; }
+    public LocalDate getDate() { return date; }
+    public boolean isBusinessDay() { return businessDay; }
+}
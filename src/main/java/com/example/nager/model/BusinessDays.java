@@ -0,0 +1,11 @@
+package com.example.nager.model;
+import java.time.LocalDate;
+public class BusinessDays {
+    private String countryCode; private LocalDate from; private LocalDate to; private int businessDays;
+    public BusinessDays(String countryCode, LocalDate from, LocalDate to, int businessDays) { this.countryCode = countryCode; this.from = from; this.to = to; this.businessDays = businessDays; }
+    public String getCountryCode() { return countryCode; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    /** Business days in {@code (from, to]}. */
+    public int getBusinessDays() { return businessDays; }
+}
@@ -0,0 +1,3 @@
+package com.example.nager.model;
+/** Nager.Date holiday types; a holiday's types are kept as a bitmask of {@code 1 << ordinal()}. */
+public enum HolidayType { Public, Bank, School, Authorities, Optional, Observance }
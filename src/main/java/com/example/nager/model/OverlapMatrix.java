@@ -0,0 +1,10 @@
+package com.example.nager.model;
+import java.util.List;
+public class OverlapMatrix {
+    private int year; private List<String> countries; private int[][] shared;
+    public OverlapMatrix(int year, List<String> countries, int[][] shared) { this.year = year; this.countries = countries; this.shared = shared; }
+    public int getYear() { return year; }
+    public List<String> getCountries() { return countries; }
+    /** {@code shared[i][j]} = holidays shared by countries i and j; the diagonal is each country's own holiday count. */
+    public int[][] getShared() { return shared; }
+}
@@ -1,16 +1,66 @@
 package com.example.nager.model;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import java.time.LocalDate; import java.util.List;
+import com.fasterxml.jackson.annotation.JsonCreator; import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties; import com.fasterxml.jackson.annotation.JsonProperty;
+import java.lang.ref.WeakReference; import java.time.LocalDate; import java.util.ArrayList; import java.util.List; import java.util.Map; import java.util.WeakHashMap;
+/**
+ * Immutable and compact, since every cached country-year holds a list of these: the date is an epoch day, strings are
+ * interned, county lists are shared through a weak canonical table and types are a {@link HolidayType} bitmask
+ * (unknown types are dropped). Jackson decodes straight into the constructor.
+ */
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class PublicHoliday {
-    private LocalDate date; private String localName; private String name; private String countryCode; private boolean fixed; private boolean global; private List<String> counties; private Integer launchYear; private List<String> types;
-    public LocalDate getDate() { return date; } public void setDate(LocalDate date) { this.date = date; }
-    public String getLocalName() { return localName; } public void setLocalName(String localName) { this.localName = localName; }
-    public String getName() { return name; } public void setName(String name) { this.name = name; }
-    public String getCountryCode() { return countryCode; } public void setCountryCode(String countryCode) { this.countryCode = countryCode; }
-    public boolean isFixed() { return fixed; } public void setFixed(boolean fixed) { this.fixed = fixed; }
-    public boolean isGlobal() { return global; } public void setGlobal(boolean global) { this.global = global; }
-    public List<String> getCounties() { return counties; } public void setCounties(List<String> counties) { this.counties = counties; }
-    public Integer getLaunchYear() { return launchYear; } public void setLaunchYear(Integer launchYear) { this.launchYear = launchYear; }
-    public List<String> getTypes() { return types; } public void setTypes(List<String> types) { this.types = types; }
+public final class PublicHoliday {
+    // weak both ways, so a county list no cached holiday refers to any more leaves the table
+    private static final Map<List<String>, WeakReference<List<String>>> COUNTIES = new WeakHashMap<>();
+    private final int epochDay; private final String localName; private final String name; private final String countryCode;
+    private final List<String> counties; private final short launchYear; private final byte types; private final boolean fixed; private final boolean global;
+
+    @JsonCreator
+    public PublicHoliday(@JsonProperty("date") LocalDate date, @JsonProperty("localName") String localName, @JsonProperty("name") String name,
+                         @JsonProperty("countryCode") String countryCode, @JsonProperty("fixed") boolean fixed, @JsonProperty("global") boolean global,
+                         @JsonProperty("counties") List<String> counties, @JsonProperty("launchYear") Integer launchYear, @JsonProperty("types") List<String> types) {
+        this(date == null ? Integer.MIN_VALUE : (int) date.toEpochDay(), localName, name, countryCode, fixed, global, counties,
+             launchYear == null ? 0 : launchYear, typeMask(types));
+    }
+
+    public PublicHoliday(int epochDay, String localName, String name, String countryCode, boolean fixed, boolean global,
+                         List<String> counties, int launchYear, int typeMask) {
+        this.epochDay = epochDay; this.localName = intern(localName); this.name = intern(name); this.countryCode = intern(countryCode);
+        this.fixed = fixed; this.global = global; this.counties = canonicalCounties(counties); this.launchYear = (short) launchYear; this.types = (byte) typeMask;
+    }
+
+    public LocalDate getDate() { return epochDay == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay); }
+    @JsonIgnore public int getEpochDay() { return epochDay; }
+    public String getLocalName() { return localName; }
+    public String getName() { return name; }
+    public String getCountryCode() { return countryCode; }
+    public boolean isFixed() { return fixed; }
+    public boolean isGlobal() { return global; }
+    public List<String> getCounties() { return counties; }
+    public Integer getLaunchYear() { return launchYear == 0 ? null : (int) launchYear; }
+    @JsonIgnore public int getTypeMask() { return types; }
+    public List<String> getTypes() {
+        List<String> names = new ArrayList<>(Integer.bitCount(types));
+        for (HolidayType t : HolidayType.values()) if ((types & (1 << t.ordinal())) != 0) names.add(t.name());
+        return names;
+    }
+
+    public static int typeMask(List<String> types) {
+        int mask = 0;
+        if (types != null) for (String t : types) for (HolidayType known : HolidayType.values()) if (known.name().equals(t)) mask |= 1 << known.ordinal();
+        return mask;
+    }
+
+    private static String intern(String s) { return s == null ? null : s.intern(); }
+
+    private static List<String> canonicalCounties(List<String> counties) {
+        if (counties == null) return null;
+        List<String> copy = counties.stream().map(PublicHoliday::intern).toList();
+        synchronized (COUNTIES) {
+            WeakReference<List<String>> ref = COUNTIES.get(copy);
+            List<String> shared = ref != null ? ref.get() : null;
+            if (shared != null) return shared;
+            COUNTIES.put(copy, new WeakReference<>(copy));
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.nager.model;
+import java.time.LocalDate; import java.util.Map;
+public class SharedHoliday {
+    private LocalDate date; private Map<String, String> localNames;
+    public SharedHoliday(LocalDate date, Map<String, String> localNames) { this.date = date; this.localNames = localNames; }
+    public LocalDate getDate() { return date; }
+    public Map<String, String> getLocalNames() { return localNames; }
+}
@@ -0,0 +1,9 @@
+package com.example.nager.model;
+import java.util.List;
+public class WeekdayCountSummary {
+    private int year; private int countries; private List<CountryHolidayCount> ranking;
+    public WeekdayCountSummary(int year, List<CountryHolidayCount> ranking) { this.year = year; this.countries = ranking.size(); this.ranking = ranking; }
+    public int getYear() { return year; }
+    public int getCountries() { return countries; }
+    public List<CountryHolidayCount> getRanking() { return ranking; }
+}
@@ -0,0 +1,77 @@
+package com.example.nager.service;
+
+import java.time.LocalDate;
+
+/**
+ * Business days of one country over consecutive years as a prefix sum: {@code cumulative[i]} is the number of
+ * business days in the first {@code i} days of the span. Checks and counts are O(1), adding days is a binary search.
+ */
+final class BusinessCalendar {
+    final int firstYear;
+    final int lastYear;
+    private final long firstEpochDay;
+    private final int[] cumulative;
+
+    private BusinessCalendar(int firstYear, int lastYear, int[] cumulative) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstEpochDay = LocalDate.of(firstYear, 1, 1).toEpochDay();
+        this.cumulative = cumulative;
+    }
+
+    /** Built from index entries for consecutive years in ascending order; a day is a business day unless it is a weekend day or a holiday. */
+    static BusinessCalendar of(int weekendDays, HolidayIndex.CountryYear... ascending) {
+        int firstYear = ascending[0].year, lastYear = ascending[ascending.length - 1].year;
+        int days = (int) (LocalDate.of(lastYear + 1, 1, 1).toEpochDay() - LocalDate.of(firstYear, 1, 1).toEpochDay());
+        int[] cumulative = new int[days + 1];
+        int i = 0;
+        int dow = LocalDate.of(firstYear, 1, 1).getDayOfWeek().getValue() - 1;
+        for (HolidayIndex.CountryYear e : ascending) {
+            for (int bit = 0, n = LocalDate.of(e.year, 1, 1).lengthOfYear(); bit < n; bit++, i++, dow = dow == 6 ? 0 : dow + 1) {
+                boolean business = (weekendDays & (1 << dow)) == 0 && (e.days[bit >>> 6] & (1L << bit)) == 0;
+                cumulative[i + 1] = cumulative[i] + (business ? 1 : 0);
+            }
+        }
+        return new BusinessCalendar(firstYear, lastYear, cumulative);
+    }
+
+    boolean covers(LocalDate date) {
+        return date.getYear() >= firstYear && date.getYear() <= lastYear;
+    }
+
+    boolean isBusinessDay(LocalDate date) {
+        int i = index(date);
+        return cumulative[i + 1] != cumulative[i];
+    }
+
+    /** Business days in {@code (from, to]}; negative when {@code to} is before {@code from}. */
+    int count(LocalDate from, LocalDate to) {
+        return cumulative[index(to) + 1] - cumulative[index(from) + 1];
+    }
+
+    /**
+     * The {@code n}-th business day after {@code date} ({@code n > 0}) or before it ({@code n < 0}), or {@code date}
+     * itself for zero; {@code null} when the answer lies outside the span.
+     */
+    LocalDate add(LocalDate date, int n) {
+        if (n == 0) return date;
+        int i = index(date);
+        // the day we want is the one whose inclusion brings the running count to target
+        int p = n > 0 ? firstAtLeast(cumulative[i + 1] + n) : firstAtLeast(cumulative[i] + n + 1);
+        return p <= 0 || p >= cumulative.length ? null : LocalDate.ofEpochDay(firstEpochDay + p - 1);
+    }
+
+    private int index(LocalDate date) {
+        return (int) (date.toEpochDay() - firstEpochDay);
+    }
+
+    // first position whose cumulative count is >= target, or cumulative.length
+    private int firstAtLeast(int target) {
+        int lo = 0, hi = cumulative.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < target) lo = mid + 1; else hi = mid;
+        }
+        return hi;
+    }
+}
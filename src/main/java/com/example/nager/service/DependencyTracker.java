@@ -0,0 +1,115 @@
+package com.example.nager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Which publicHolidays entries ({@code "year:CC"}) each derived cache entry was built from. A source whose content
+ * changed evicts exactly its dependents; an unchanged source re-puts them, restarting their write-based expiry.
+ * Registrations of entries the cache already dropped (size or expiry) are pruned on the next extension of their source,
+ * and by a sweep whenever registrations have doubled since the last one, so client-chosen keys cannot grow the map
+ * beyond about twice what the derived caches hold.
+ */
+final class DependencyTracker {
+    private static final int MIN_SWEEP_AT = 1024;
+    private record Derived(Cache cache, Object key) { }
+
+    private final Map<String, Set<Derived>> dependents = new ConcurrentHashMap<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile int sweepAt = MIN_SWEEP_AT;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    DependencyTracker(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Caches a freshly computed value and ties it to its sources; registered first so a concurrent change still reaches it. */
+    void put(Cache cache, Object key, Object value, Collection<String> sources) {
+        Derived derived = new Derived(cache, key);
+        for (String source : sources) {
+            if (dependents.computeIfAbsent(source, s -> ConcurrentHashMap.newKeySet()).add(derived)) registrations.incrementAndGet();
+        }
+        cache.put(key, value);
+        count(cache, "computed");
+        if (registrations.get() > sweepAt) sweep();
+    }
+
+    /** Drops registrations of entries no longer cached; returns how many remain. */
+    int sweep() {
+        if (!sweeping.compareAndSet(false, true)) return registrations.get();
+        try {
+            int remaining = 0;
+            for (Map.Entry<String, Set<Derived>> e : dependents.entrySet()) {
+                e.getValue().removeIf(d -> !held(d));
+                if (e.getValue().isEmpty()) dependents.remove(e.getKey(), e.getValue());
+                remaining += e.getValue().size();
+            }
+            registrations.set(remaining);
+            sweepAt = Math.max(MIN_SWEEP_AT, 2 * remaining);
+            return remaining;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /** Evicts every entry built from {@code source}; returns how many were registered. */
+    int invalidate(String source) {
+        Set<Derived> affected = dependents.remove(source);
+        if (affected == null) return 0;
+        registrations.addAndGet(-affected.size());
+        for (Derived d : affected) {
+            d.cache.evict(d.key);
+            count(d.cache, "invalidated");
+        }
+        return affected.size();
+    }
+
+    /** Restarts the expiry of every entry still cached that was built from {@code source}; returns how many. */
+    int extend(String source) {
+        Set<Derived> affected = dependents.get(source);
+        if (affected == null) return 0;
+        int extended = 0;
+        for (Derived d : affected) {
+            Cache.ValueWrapper current = d.cache.get(d.key);
+            if (current == null) {
+                if (affected.remove(d)) registrations.decrementAndGet();
+                continue;
+            }
+            d.cache.put(d.key, current.get());
+            count(d.cache, "extended");
+            extended++;
+        }
+        return extended;
+    }
+
+    int dependents(String source) {
+        Set<Derived> affected = dependents.get(source);
+        return affected == null ? 0 : affected.size();
+    }
+
+    // without touching the entry, so a sweep does not count as use for size-based eviction
+    @SuppressWarnings("unchecked")
+    private static boolean held(Derived d) {
+        if (d.cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).policy().getIfPresentQuietly(d.key) != null;
+        }
+        return d.cache.get(d.key) != null;
+    }
+
+    private void count(Cache cache, String action) {
+        counters.computeIfAbsent(cache.getName() + ":" + action, k -> Counter.builder("holiday.derived.entries")
+                .tags("cache", cache.getName(), "action", action)
+                .description("Derived cache entries computed, invalidated by a changed source or extended by an unchanged one")
+                .register(meterRegistry)).increment();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.nager.service;
+
+import com.example.nager.model.CommonHoliday;
+import com.example.nager.model.PublicHoliday;
+import com.example.nager.model.SharedHoliday;
+import java.lang.ref.WeakReference;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Day-of-year bitmap per country-year. Bit {@code d - 1} is set when day-of-year {@code d} is a holiday;
+ * names live in rank-ordered tables parallel to the set bits. Entries are rebuilt only when the client
+ * hands over a different list instance (i.e. the publicHolidays cache entry was refreshed).
+ */
+final class HolidayIndex {
+    static final int WORDS = 6; // 384 bits, enough for 366 days
+
+    private final ConcurrentMap<Long, CountryYear> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, long[]> weekendMasks = new ConcurrentHashMap<>();
+
+    CountryYear of(int year, String countryCode, List<PublicHoliday> source) {
+        long key = key(year, countryCode);
+        CountryYear entry = entries.get(key);
+        if (entry != null && entry.source.get() == source) return entry;
+        CountryYear built = CountryYear.build(year, source);
+        entries.put(key, built);
+        return built;
+    }
+
+    /** Bitmap of the days in {@code year} falling on one of the weekend days ({@link #dayMask} encoded). */
+    long[] weekendMask(int year, int weekendDays) {
+        return weekendMasks.computeIfAbsent((year << 7) | weekendDays, k -> {
+            long[] mask = new long[WORDS];
+            LocalDate first = LocalDate.of(year, 1, 1);
+            int dow = first.getDayOfWeek().getValue() - 1;
+            for (int bit = 0, days = first.lengthOfYear(); bit < days; bit++, dow = dow == 6 ? 0 : dow + 1) {
+                if ((weekendDays & (1 << dow)) != 0) mask[bit >>> 6] |= 1L << bit;
+            }
+            return mask;
+        });
+    }
+
+    static int dayMask(Set<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek d : days) mask |= 1 << (d.getValue() - 1);
+        return mask;
+    }
+
+    static int weekdayCount(CountryYear entry, long[] weekendMask) {
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) count += Long.bitCount(entry.days[i] & ~weekendMask[i]);
+        return count;
+    }
+
+    static List<CommonHoliday> common(CountryYear a, CountryYear b) {
+        CommonHoliday[] out = new CommonHoliday[overlap(a, b)];
+        int n = 0;
+        for (int i = 0; i < WORDS; i++) {
+            for (long w = a.days[i] & b.days[i]; w != 0; w &= w - 1) {
+                int bit = (i << 6) + Long.numberOfTrailingZeros(w);
+                out[n++] = new CommonHoliday(LocalDate.ofYearDay(a.year, bit + 1), a.localNames[a.rank(bit)], b.localNames[b.rank(bit)]);
+            }
+        }
+        return List.of(out);
+    }
+
+    /** Dates shared by every entry, with each country's first local name keyed by country code in argument order. */
+    static List<SharedHoliday> common(List<String> countryCodes, List<CountryYear> entries) {
+        if (entries.isEmpty()) return List.of();
+        long[] and = new long[WORDS];
+        Arrays.fill(and, -1L);
+        for (CountryYear e : entries) for (int i = 0; i < WORDS; i++) and[i] &= e.days[i];
+        List<SharedHoliday> out = new ArrayList<>();
+        for (int i = 0; i < WORDS; i++) {
+            for (long w = and[i]; w != 0; w &= w - 1) {
+                int bit = (i << 6) + Long.numberOfTrailingZeros(w);
+                Map<String, String> names = new LinkedHashMap<>();
+                for (int k = 0; k < entries.size(); k++) names.put(countryCodes.get(k), entries.get(k).localNames[entries.get(k).rank(bit)]);
+                out.add(new SharedHoliday(LocalDate.ofYearDay(entries.get(0).year, bit + 1), names));
+            }
+        }
+        return out;
+    }
+
+    static int overlap(CountryYear a, CountryYear b) {
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) count += Long.bitCount(a.days[i] & b.days[i]);
+        return count;
+    }
+
+    private static long key(int year, String countryCode) {
+        return ((long) year << 32) | ((long) countryCode.charAt(0) << 16) | countryCode.charAt(1);
+    }
+
+    static final class CountryYear {
+        final int year;
+        final long[] days = new long[WORDS];
+        final int[] wordRanks = new int[WORDS];
+        final String[] names;
+        final String[] localNames;
+        final WeakReference<List<PublicHoliday>> source;
+
+        private CountryYear(int year, List<PublicHoliday> source, int size) {
+            this.year = year;
+            this.source = new WeakReference<>(source);
+            this.names = new String[size];
+            this.localNames = new String[size];
+        }
+
+        static CountryYear build(int year, List<PublicHoliday> holidays) {
+            // first entry wins for a date; dates outside the year are not part of this country-year
+            PublicHoliday[] byDay = new PublicHoliday[366];
+            int size = 0, jan1 = (int) LocalDate.of(year, 1, 1).toEpochDay(), length = Year.isLeap(year) ? 366 : 365;
+            for (PublicHoliday h : holidays) {
+                int day = h.getEpochDay() - jan1; // a missing date is Integer.MIN_VALUE and falls outside every year
+                if (day < 0 || day >= length || byDay[day] != null) continue;
+                byDay[day] = h;
+                size++;
+            }
+            CountryYear e = new CountryYear(year, holidays, size);
+            int rank = 0;
+            for (int bit = 0; bit < byDay.length; bit++) {
+                if (byDay[bit] == null) continue;
+                e.days[bit >>> 6] |= 1L << bit;
+                e.names[rank] = byDay[bit].getName();
+                e.localNames[rank++] = byDay[bit].getLocalName();
+            }
+            for (int i = 1; i < WORDS; i++) e.wordRanks[i] = e.wordRanks[i - 1] + Long.bitCount(e.days[i - 1]);
+            return e;
+        }
+
+        int rank(int bit) {
+            return wordRanks[bit >>> 6] + Long.bitCount(days[bit >>> 6] & ((1L << bit) - 1));
+        }
+    }
+}
@@ -1,70 +1,432 @@
 package com.example.nager.service;
 
+import com.example.nager.client.ConcurrencyLimitExceededException;
+import com.example.nager.client.Deadline;
 import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.client.PublicHolidaysChangedEvent;
+import com.example.nager.client.PublicHolidaysUnchangedEvent;
 import com.example.nager.config.WeekendProperties;
+import com.example.nager.model.AvailableCountry;
+import com.example.nager.model.BatchQuery;
+import com.example.nager.model.BatchResult;
 import com.example.nager.model.CommonHoliday;
 import com.example.nager.model.CountryHolidayCount;
 import com.example.nager.model.HolidaySummary;
-import com.example.nager.model.PublicHoliday;
+import com.example.nager.model.OverlapMatrix;
+import com.example.nager.model.SharedHoliday;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger; import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache; import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux; import reactor.core.publisher.Mono;
-import java.time.DayOfWeek; import java.time.LocalDate; import java.util.*; import java.util.stream.Collectors;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux; import reactor.core.publisher.Mono; import reactor.core.scheduler.Schedulers; import reactor.util.retry.Retry;
+import java.time.Duration; import java.time.DayOfWeek; import java.time.LocalDate; import java.util.*; import java.util.concurrent.ConcurrentHashMap; import java.util.function.Function; import java.util.function.Supplier; import java.util.regex.Pattern;
 
 @Service
 public class HolidayService {
     private static final Logger log = LoggerFactory.getLogger(HolidayService.class);
+    static final String WEEKDAY_COUNTS = "weekdayCounts"; // "year:CC" -> Integer
+    static final String TIMELINES = "timelines"; // "CC:fromYear" -> HolidayTimeline
+    static final String BUSINESS_CALENDARS = "businessCalendars"; // "CC:firstYear-lastYear" -> BusinessCalendar
+    static final String COMMON_DATES = "commonDates"; // "year:A:B" -> List<CommonHoliday>, "year:[A, B, ...]" -> List<SharedHoliday>
+    static final String OVERLAP_MATRICES = "overlapMatrices"; // "year:[A, B, ...]" -> OverlapMatrix
+    static final int CALENDAR_BLOCK_YEARS = 4;
+    static final int MAX_TIMELINES = 3; // last-n / next-n look at most 6 years away from the date
+    private static final String BATCH_FAILED = "holiday.batch.failed"; // context: country-years a batch failed to prefetch
+    private static final Pattern COUNTRY_CODE = Pattern.compile("^[A-Za-z]{2}$");
     private final NagerDateReactiveClient client; private final WeekendProperties weekendProps;
-    public HolidayService(NagerDateReactiveClient client, WeekendProperties weekendProps) { this.client = client; this.weekendProps = weekendProps; }
+    private final HolidayIndex index = new HolidayIndex();
+    private final DependencyTracker dependencies;
+    private final Map<String, Integer> weekendMasks = new ConcurrentHashMap<>();
+    @Value("${app.fanout.concurrency:8}") private int fanOutConcurrency = 8;
+    @Value("${app.fanout.permit-retries:10}") private int permitRetries = 10;
+    @Value("${app.fanout.permit-retry-delay-ms:1000}") private long permitRetryDelayMs = 1000;
+    private final Cache weekdayCounts; private final Cache timelines; private final Cache businessCalendars;
+    private final Cache commonDates; private final Cache overlapMatrices;
+    public HolidayService(NagerDateReactiveClient client, WeekendProperties weekendProps, CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.client = client; this.weekendProps = weekendProps;
+        this.dependencies = new DependencyTracker(meterRegistry);
+        this.weekdayCounts = cache(cacheManager, WEEKDAY_COUNTS);
+        this.timelines = cache(cacheManager, TIMELINES);
+        this.businessCalendars = cache(cacheManager, BUSINESS_CALENDARS);
+        this.commonDates = cache(cacheManager, COMMON_DATES);
+        this.overlapMatrices = cache(cacheManager, OVERLAP_MATRICES);
+    }
+
+    /** Drops exactly the derived entries built from a country-year whose upstream content changed. */
+    @EventListener
+    public void onPublicHolidaysChanged(PublicHolidaysChangedEvent event) {
+        int evicted = dependencies.invalidate(source(event.year(), event.countryCode()));
+        log.info("{} derived entries invalidated after {}/{} changed", evicted, event.year(), event.countryCode());
+    }
 
-    @Cacheable(cacheNames = "lastThree", key = "#p0 + ':' + #p1")
+    /** Keeps derived entries of a revalidated, unchanged country-year as long as their source. */
+    @EventListener
+    public void onPublicHolidaysUnchanged(PublicHolidaysUnchangedEvent event) {
+        dependencies.extend(source(event.year(), event.countryCode()));
+    }
+
+    /** The last three holidays of the previous and current year only; last-n looks further back. */
     public Mono<List<HolidaySummary>> getLastThreeHolidays(String countryCode, LocalDate today) {
-        int year = today.getYear();
-        Mono<List<PublicHoliday>> current = client.getPublicHolidays(year, countryCode);
-        Mono<List<PublicHoliday>> prev = client.getPublicHolidays(year - 1, countryCode);
-        return Flux.merge(current.flatMapMany(Flux::fromIterable), prev.flatMapMany(Flux::fromIterable))
-            .filter(h -> !h.getDate().isAfter(today))
-            .sort(Comparator.comparing(PublicHoliday::getDate).reversed())
-            .map(h -> new HolidaySummary(h.getDate(), h.getName()))
-            .take(3)
-            .collectList()
+        int fromYear = today.getYear() - 1;
+        return collect(countryCode, timeline(countryCode, fromYear), fromYear, -2, 1, 3, List.of(), t -> t.lastOnOrBefore(today, 3))
             .doOnNext(list -> log.info("Last-3 computed for {} -> {} entries", countryCode, list.size()));
     }
 
-    @Cacheable(cacheNames = "weekdayCounts", key = "#p0 + ':' + #p1")
+    /** Holidays on or before {@code date}, newest first, from the previous and current year and earlier ones as needed. */
+    public Mono<List<HolidaySummary>> getLastHolidays(String countryCode, LocalDate date, int n) {
+        int fromYear = date.getYear() - 1;
+        return collect(countryCode, timeline(countryCode, fromYear), fromYear, -2, MAX_TIMELINES, n, List.of(), t -> t.lastOnOrBefore(date, n));
+    }
+
+    /** Holidays after {@code date}, oldest first, from the current and next year and later ones as needed. */
+    public Mono<List<HolidaySummary>> getNextHolidays(String countryCode, LocalDate date, int n) {
+        return collect(countryCode, timeline(countryCode, date.getYear()), date.getYear(), 2, MAX_TIMELINES, n, List.of(), t -> t.nextAfter(date, n));
+    }
+
+    // walks two-year timelines away from the date until n holidays are found, a timeline is empty (no data that far
+    // out) or MAX_TIMELINES have been read; each timeline is its own cached entry. Only the first timeline's failure
+    // fails the answer: one further out that cannot be read ends the walk with what was found so far.
+    private Mono<List<HolidaySummary>> collect(String countryCode, Mono<HolidayTimeline> timeline, int fromYear, int step, int timelinesLeft,
+                                               int n, List<HolidaySummary> found, Function<HolidayTimeline, List<HolidaySummary>> slice) {
+        return timeline.flatMap(t -> {
+            List<HolidaySummary> more = slice.apply(t);
+            List<HolidaySummary> all = more;
+            if (!found.isEmpty()) {
+                all = new ArrayList<>(found);
+                all.addAll(more.subList(0, Math.min(more.size(), n - found.size())));
+            }
+            if (all.size() >= n || t.size() == 0 || timelinesLeft <= 1) return Mono.just(all);
+            int next = fromYear + step;
+            Mono<HolidayTimeline> further = timeline(countryCode, next).onErrorResume(e -> {
+                log.debug("Stopped looking beyond {} for {}: {}", next, countryCode, e.toString());
+                return Mono.just(HolidayTimeline.of()); // empty: the walk ends here
+            });
+            return collect(countryCode, further, next, step, timelinesLeft - 1, n, all, slice);
+        });
+    }
+
+    // assembled from per-country weekdayCounts entries, so any list shares work with any other list
     public Mono<List<CountryHolidayCount>> countWeekdayHolidays(int year, List<String> countryCodes) {
-        List<Mono<CountryHolidayCount>> monos = new ArrayList<>();
-        for (String cc : countryCodes) {
-            monos.add(client.getPublicHolidays(year, cc).map(list -> {
-                Set<DayOfWeek> weekend = weekendFor(cc);
-                long weekdayCount = list.stream().filter(h -> !weekend.contains(h.getDate().getDayOfWeek())).count();
-                return new CountryHolidayCount(cc, (int) weekdayCount);
-            }));
-        }
-        return Flux.mergeSequential(monos)
-            .collectList()
-            .map(list -> { Collections.sort(list); return list; })
+        return rankWeekdayCounts(year, Flux.fromIterable(countryCodes).distinct())
             .doOnNext(list -> log.info("Weekday counts computed for {} countries", list.size()));
     }
 
-    @Cacheable(cacheNames = "commonDates", key = "T(String).format('%d:%s:%s', #p0, #p1, #p2)")
+    public Mono<List<CountryHolidayCount>> countWeekdayHolidaysWorldwide(int year) {
+        Flux<String> countryCodes = client.getAvailableCountries().flatMapMany(Flux::fromIterable).map(AvailableCountry::getCountryCode);
+        return rankWeekdayCounts(year, countryCodes)
+            .doOnNext(list -> log.info("Worldwide weekday counts computed for {} countries", list.size()));
+    }
+
+    /** Counts are emitted in arrival order (cached countries first), not ranked. */
+    public Flux<CountryHolidayCount> streamWeekdayHolidays(int year, List<String> countryCodes) {
+        return Flux.fromIterable(countryCodes).distinct().flatMap(cc -> weekdayCount(year, cc), fanOutConcurrency);
+    }
+
+    private record CountryYear(int year, String countryCode) { }
+    // further: country-years a last-n / next-n walk may go on to, prefetched with the rest but, as in the walk, not fatal
+    private record BatchPlan(String type, Set<CountryYear> reads, Set<CountryYear> further, Supplier<Mono<?>> evaluate,
+                             ResponseStatusException invalid) { }
+
+    /**
+     * Answers heterogeneous queries in request order. The union of country-years they read, including every year a
+     * last-n / next-n walk may reach, is fetched first, each once and at most fanOutConcurrency at a time; the queries
+     * then run against the warm cache. A failing query gets its
+     * status and message without failing the others.
+     */
+    public Mono<List<BatchResult>> batch(List<BatchQuery> queries, LocalDate today) {
+        return Mono.defer(() -> {
+            List<BatchPlan> plans = queries.stream().map(q -> plan(q, today)).toList();
+            Set<CountryYear> union = new LinkedHashSet<>();
+            plans.forEach(plan -> {
+                union.addAll(plan.reads);
+                union.addAll(plan.further);
+            });
+            log.info("Batch of {} queries reads {} country-years", plans.size(), union.size());
+            Map<CountryYear, Throwable> failed = new ConcurrentHashMap<>();
+            return Flux.fromIterable(union)
+                .flatMap(cy -> fannedOut(cy.year, cy.countryCode).then().onErrorResume(e -> {
+                    failed.put(cy, e);
+                    return Mono.empty();
+                }), fanOutConcurrency)
+                .thenMany(Flux.fromIterable(plans).flatMapSequential(plan -> evaluate(plan, failed), fanOutConcurrency))
+                .collectList();
+        });
+    }
+
+    // a query whose input failed to load reports that failure instead of fetching it again
+    private Mono<BatchResult> evaluate(BatchPlan plan, Map<CountryYear, Throwable> failed) {
+        if (plan.invalid != null) return Mono.just(failure(plan.type, plan.invalid));
+        for (CountryYear cy : plan.reads) {
+            Throwable e = failed.get(cy);
+            if (e != null) return Mono.just(failure(plan.type, e));
+        }
+        return plan.evaluate.get().<BatchResult>map(result -> BatchResult.ok(plan.type, result))
+            .onErrorResume(e -> Mono.just(failure(plan.type, e)))
+            .contextWrite(c -> c.put(BATCH_FAILED, failed)); // a walk reaching a failed year ends there, no refetch
+    }
+
+    private BatchPlan plan(BatchQuery q, LocalDate today) {
+        String type = q.getType();
+        try {
+            switch (type == null ? "" : type) {
+                case "last-3" -> {
+                    String cc = code(q.getCountryCode());
+                    LocalDate date = q.getDate() != null ? q.getDate() : today;
+                    return new BatchPlan(type, reads(cc, date.getYear() - 1, date.getYear()), Set.of(), () -> getLastThreeHolidays(cc, date), null);
+                }
+                case "last-n" -> {
+                    String cc = code(q.getCountryCode());
+                    LocalDate date = q.getDate() != null ? q.getDate() : today;
+                    int n = count(q.getN());
+                    return new BatchPlan(type, reads(cc, date.getYear() - 1, date.getYear()), walk(cc, date.getYear() - 1, -2),
+                        () -> getLastHolidays(cc, date, n), null);
+                }
+                case "next-n" -> {
+                    String cc = code(q.getCountryCode());
+                    LocalDate date = q.getDate() != null ? q.getDate() : today;
+                    int n = count(q.getN());
+                    return new BatchPlan(type, reads(cc, date.getYear(), date.getYear() + 1), walk(cc, date.getYear(), 2),
+                        () -> getNextHolidays(cc, date, n), null);
+                }
+                case "weekday-count" -> {
+                    int year = required(q.getYear(), "year");
+                    if (q.getCountries() == null || q.getCountries().isEmpty()) throw badQuery("countries is required");
+                    List<String> codes = q.getCountries().stream().map(HolidayService::code).distinct().toList();
+                    Set<CountryYear> reads = new LinkedHashSet<>();
+                    for (String cc : codes) reads.add(new CountryYear(year, cc));
+                    return new BatchPlan(type, reads, Set.of(), () -> countWeekdayHolidays(year, codes), null);
+                }
+                case "common-dates" -> {
+                    int year = required(q.getYear(), "year");
+                    String a = code(q.getCountryA()), b = code(q.getCountryB());
+                    return new BatchPlan(type, new LinkedHashSet<>(List.of(new CountryYear(year, a), new CountryYear(year, b))), Set.of(),
+                        () -> commonDates(year, a, b), null);
+                }
+                default -> throw badQuery("Unknown query type '" + type + "'");
+            }
+        } catch (ResponseStatusException e) {
+            return new BatchPlan(type, Set.of(), Set.of(), null, e);
+        }
+    }
+
+    private static Set<CountryYear> reads(String countryCode, int firstYear, int secondYear) {
+        return Set.of(new CountryYear(firstYear, countryCode), new CountryYear(secondYear, countryCode));
+    }
+
+    // the timelines after the first that collect may read, at most MAX_TIMELINES in all
+    private static Set<CountryYear> walk(String countryCode, int fromYear, int step) {
+        Set<CountryYear> further = new LinkedHashSet<>();
+        for (int i = 1; i < MAX_TIMELINES; i++) {
+            int year = fromYear + i * step;
+            further.addAll(reads(countryCode, year, year + 1));
+        }
+        return further;
+    }
+
+    private static String code(String countryCode) {
+        if (countryCode == null || !COUNTRY_CODE.matcher(countryCode).matches()) throw badQuery("Use ISO 3166-1 alpha-2 code");
+        return countryCode.toUpperCase();
+    }
+
+    private static int count(Integer n) {
+        if (n == null) return 3;
+        if (n < 1 || n > 100) throw badQuery("n must be between 1 and 100");
+        return n;
+    }
+
+    private static int required(Integer value, String name) {
+        if (value == null) throw badQuery(name + " is required");
+        return value;
+    }
+
+    private static ResponseStatusException badQuery(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    private static BatchResult failure(String type, Throwable e) {
+        if (e instanceof ResponseStatusException rse) return BatchResult.failed(type, rse.getStatusCode().value(), rse.getReason());
+        if (e instanceof RequestNotPermitted || e instanceof ConcurrencyLimitExceededException) return BatchResult.failed(type, HttpStatus.SERVICE_UNAVAILABLE.value(), "Upstream rate limit reached");
+        if (e instanceof WebClientResponseException wcre) {
+            return BatchResult.failed(type, HttpStatus.BAD_GATEWAY.value(), "Nager.Date answered " + wcre.getStatusCode().value());
+        }
+        log.warn("Batch query {} failed", type, e);
+        return BatchResult.failed(type, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Query failed");
+    }
+
+    private Mono<List<CountryHolidayCount>> rankWeekdayCounts(int year, Flux<String> countryCodes) {
+        return countryCodes
+            .flatMap(cc -> weekdayCount(year, cc), fanOutConcurrency)
+            .collectSortedList();
+    }
+
+    private Mono<CountryHolidayCount> weekdayCount(int year, String countryCode) {
+        String key = source(year, countryCode);
+        return derived(weekdayCounts, key, List.of(key), () -> {
+            long[] weekend = index.weekendMask(year, weekendFor(countryCode));
+            return fannedOut(year, countryCode).map(entry -> HolidayIndex.weekdayCount(entry, weekend));
+        }).map(count -> new CountryHolidayCount(countryCode, count));
+    }
+
     public Mono<List<CommonHoliday>> commonDates(int year, String countryA, String countryB) {
-        Mono<List<PublicHoliday>> a = client.getPublicHolidays(year, countryA);
-        Mono<List<PublicHoliday>> b = client.getPublicHolidays(year, countryB);
-        return Mono.zip(a, b).map(tuple -> {
-            Map<LocalDate, String> byDateA = tuple.getT1().stream().collect(Collectors.toMap(PublicHoliday::getDate, PublicHoliday::getLocalName, (h1, h2) -> h1));
-            Map<LocalDate, String> byDateB = tuple.getT2().stream().collect(Collectors.toMap(PublicHoliday::getDate, PublicHoliday::getLocalName, (h1, h2) -> h1));
-            Set<LocalDate> intersection = new TreeSet<>(byDateA.keySet());
-            intersection.retainAll(byDateB.keySet());
-            return intersection.stream().sorted().map(d -> new CommonHoliday(d, byDateA.get(d), byDateB.get(d))).toList();
+        return derived(commonDates, year + ":" + countryA + ":" + countryB, sources(year, List.of(countryA, countryB)),
+            () -> Mono.zip(indexed(year, countryA), indexed(year, countryB))
+                .map(tuple -> HolidayIndex.common(tuple.getT1(), tuple.getT2())));
+    }
+
+    public Mono<List<SharedHoliday>> sharedDates(int year, List<String> countryCodes) {
+        List<String> codes = countryCodes.stream().distinct().toList();
+        List<String> sorted = codes.stream().sorted().toList();
+        return derived(commonDates, year + ":" + sorted, sources(year, sorted), () -> indexedAll(year, sorted)
+            .map(entries -> HolidayIndex.common(sorted, entries))
+            .doOnNext(list -> log.info("Shared dates computed for {} countries -> {} dates", sorted.size(), list.size())))
+            .map(list -> codes.equals(sorted) ? list : list.stream().map(h -> inOrder(h, codes)).toList());
+    }
+
+    /** Pair counts are popcounts of ANDed day bitmaps; rows are spread over the parallel scheduler. */
+    public Mono<OverlapMatrix> overlapMatrix(int year, List<String> countryCodes) {
+        List<String> codes = countryCodes.stream().distinct().toList();
+        List<String> sorted = codes.stream().sorted().toList();
+        return derived(overlapMatrices, year + ":" + sorted, sources(year, sorted), () -> indexedAll(year, sorted).flatMap(entries -> {
+            int n = entries.size();
+            int[][] shared = new int[n][n];
+            return Flux.range(0, n).parallel().runOn(Schedulers.parallel())
+                .doOnNext(i -> {
+                    for (int j = i; j < n; j++) shared[i][j] = shared[j][i] = HolidayIndex.overlap(entries.get(i), entries.get(j));
+                })
+                .sequential()
+                .then(Mono.fromSupplier(() -> new OverlapMatrix(year, sorted, shared)));
+        }).doOnNext(m -> log.info("Overlap matrix computed for {} countries", sorted.size())))
+            .map(m -> codes.equals(sorted) ? m : inOrder(m, codes));
+    }
+
+    // cached under the sorted code set, so any order of the same countries shares one entry; callers get their own order
+    private static SharedHoliday inOrder(SharedHoliday holiday, List<String> codes) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String cc : codes) names.put(cc, holiday.getLocalNames().get(cc));
+        return new SharedHoliday(holiday.getDate(), names);
+    }
+
+    private static OverlapMatrix inOrder(OverlapMatrix matrix, List<String> codes) {
+        int n = codes.size();
+        int[] from = new int[n];
+        for (int i = 0; i < n; i++) from[i] = matrix.getCountries().indexOf(codes.get(i));
+        int[][] shared = new int[n][n];
+        for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) shared[i][j] = matrix.getShared()[from[i]][from[j]];
+        return new OverlapMatrix(matrix.getYear(), codes, shared);
+    }
+
+    // entries in the order of countryCodes; each country is fetched once, at most fanOutConcurrency at a time
+    private Mono<List<HolidayIndex.CountryYear>> indexedAll(int year, List<String> countryCodes) {
+        return Flux.fromIterable(countryCodes).flatMapSequential(cc -> fannedOut(year, cc), fanOutConcurrency).collectList();
+    }
+
+    // a limiter rejection (rate or concurrency) waits for the next permit period instead of failing the whole fan-out
+    private Mono<HolidayIndex.CountryYear> fannedOut(int year, String countryCode) {
+        // permit retries stop once the request deadline could not cover another wait
+        return Mono.deferContextual(ctx -> {
+            Deadline deadline = Deadline.from(ctx);
+            return Mono.defer(() -> indexed(year, countryCode))
+                .retryWhen(Retry.fixedDelay(permitRetries, Duration.ofMillis(permitRetryDelayMs))
+                    .filter(e -> (e instanceof RequestNotPermitted || e instanceof ConcurrencyLimitExceededException)
+                        && (deadline == null || deadline.remaining().toMillis() > permitRetryDelayMs))
+                    .onRetryExhaustedThrow((spec, sig) -> sig.failure()));
+        });
+    }
+
+    public Mono<Boolean> isBusinessDay(String countryCode, LocalDate date) {
+        return businessCalendar(countryCode, date.getYear(), date.getYear()).map(c -> c.isBusinessDay(date));
+    }
+
+    /** Business days in {@code (from, to]}, negative when {@code to} is before {@code from}. */
+    public Mono<Integer> countBusinessDays(String countryCode, LocalDate from, LocalDate to) {
+        return businessCalendar(countryCode, Math.min(from.getYear(), to.getYear()), Math.max(from.getYear(), to.getYear()))
+            .map(c -> c.count(from, to));
+    }
+
+    /** The {@code days}-th business day after (or, when negative, before) {@code date}. */
+    public Mono<LocalDate> addBusinessDays(String countryCode, LocalDate date, int days) {
+        // two calendar days per business day is generous even for holiday-dense countries
+        LocalDate bound = date.plusDays(days * 2L + Integer.signum(days) * 30L);
+        int fromYear = Math.min(date.getYear(), bound.getYear()), toYear = Math.max(date.getYear(), bound.getYear());
+        return businessCalendar(countryCode, fromYear, toYear)
+            .flatMap(c -> Mono.justOrEmpty(c.add(date, days)))
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "No business day " + days + " days from " + date + " for " + countryCode)));
+    }
+
+    // spans whole blocks of CALENDAR_BLOCK_YEARS years so nearby queries share one calendar; when a year of the block
+    // cannot be loaded (e.g. far-future data upstream does not have) it falls back to just the queried years, so only a
+    // queried year that is missing fails the answer
+    private Mono<BusinessCalendar> businessCalendar(String countryCode, int fromYear, int toYear) {
+        int first = Math.floorDiv(fromYear, CALENDAR_BLOCK_YEARS) * CALENDAR_BLOCK_YEARS;
+        int last = (Math.floorDiv(toYear, CALENDAR_BLOCK_YEARS) + 1) * CALENDAR_BLOCK_YEARS - 1;
+        return businessCalendarSpanning(countryCode, first, last).onErrorResume(e -> {
+            log.debug("Calendar block {}-{} for {} incomplete, using {}-{}: {}", first, last, countryCode, fromYear, toYear, e.toString());
+            return businessCalendarSpanning(countryCode, fromYear, toYear);
+        });
+    }
+
+    private Mono<BusinessCalendar> businessCalendarSpanning(String countryCode, int first, int last) {
+        List<String> sources = new ArrayList<>();
+        for (int year = first; year <= last; year++) sources.add(source(year, countryCode));
+        return derived(businessCalendars, countryCode + ":" + first + "-" + last, sources, () -> Flux.range(first, last - first + 1)
+            .flatMapSequential(year -> fannedOut(year, countryCode), fanOutConcurrency)
+            .collectList()
+            .map(entries -> BusinessCalendar.of(weekendFor(countryCode), entries.toArray(HolidayIndex.CountryYear[]::new))));
+    }
+
+    // keyed "CC:fromYear" for fromYear and fromYear + 1; no reference date, so entries outlive the day they were built
+    private Mono<HolidayTimeline> timeline(String countryCode, int fromYear) {
+        return derived(timelines, countryCode + ":" + fromYear, List.of(source(fromYear, countryCode), source(fromYear + 1, countryCode)),
+            () -> Mono.zip(indexed(fromYear + 1, countryCode), indexed(fromYear, countryCode))
+                .map(t -> HolidayTimeline.of(t.getT2(), t.getT1())));
+    }
+
+    // a cached derived value, or one computed now and tied to the publicHolidays entries it was built from
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> derived(Cache cache, String key, Collection<String> sources, Supplier<Mono<T>> compute) {
+        return Mono.defer(() -> {
+            Cache.ValueWrapper cached = cache.get(key);
+            if (cached != null) return Mono.just((T) cached.get());
+            return compute.get().doOnNext(value -> dependencies.put(cache, key, value, sources));
         });
     }
 
-    private Set<DayOfWeek> weekendFor(String countryCode) {
-        List<String> configured = weekendProps.getOverrides().getOrDefault(countryCode.toUpperCase(), weekendProps.getDefault());
-        Set<DayOfWeek> s = new HashSet<>();
-        for (String d : configured) s.add(DayOfWeek.valueOf(d));
-        return s;
+    private static String source(int year, String countryCode) {
+        return year + ":" + countryCode;
+    }
+
+    private static List<String> sources(int year, List<String> countryCodes) {
+        return countryCodes.stream().map(cc -> source(year, cc)).toList();
+    }
+
+    private Mono<HolidayIndex.CountryYear> indexed(int year, String countryCode) {
+        // the load behind the cache entry is shared, so this request's deadline only bounds its own wait for it
+        return Mono.deferContextual(ctx -> {
+            Map<CountryYear, Throwable> failed = ctx.getOrDefault(BATCH_FAILED, Map.of());
+            Throwable e = failed.get(new CountryYear(year, countryCode));
+            if (e != null) return Mono.error(e);
+            return Deadline.enforce(client.getPublicHolidays(year, countryCode)).map(list -> index.of(year, countryCode, list));
+        });
+    }
+
+    private static Cache cache(CacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        return cache != null ? cache : new NoOpCache(name);
+    }
+
+    private int weekendFor(String countryCode) {
+        return weekendMasks.computeIfAbsent(countryCode.toUpperCase(), cc -> {
+            Set<DayOfWeek> s = EnumSet.noneOf(DayOfWeek.class);
+            for (String d : weekendProps.getOverrides().getOrDefault(cc, weekendProps.getDefault())) s.add(DayOfWeek.valueOf(d));
+            return HolidayIndex.dayMask(s);
+        });
     }
 }
@@ -0,0 +1,72 @@
+package com.example.nager.service;
+
+import com.example.nager.model.HolidaySummary;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One country's holidays over consecutive years as a sorted epoch-day array with parallel names.
+ * Queries relative to a date are a binary search plus a slice, so entries carry no reference date.
+ */
+final class HolidayTimeline {
+    private final int[] epochDays;
+    private final String[] names;
+
+    private HolidayTimeline(int[] epochDays, String[] names) {
+        this.epochDays = epochDays;
+        this.names = names;
+    }
+
+    /** Built from index entries in ascending year order; each entry already holds one holiday per day. */
+    static HolidayTimeline of(HolidayIndex.CountryYear... ascending) {
+        int size = 0;
+        for (HolidayIndex.CountryYear e : ascending) size += e.names.length;
+        int[] days = new int[size];
+        String[] names = new String[size];
+        int n = 0;
+        for (HolidayIndex.CountryYear e : ascending) {
+            int jan1 = (int) LocalDate.of(e.year, 1, 1).toEpochDay();
+            int rank = 0; // names are rank-ordered, i.e. in ascending day order
+            for (int i = 0; i < HolidayIndex.WORDS; i++) {
+                for (long w = e.days[i]; w != 0; w &= w - 1, n++) {
+                    days[n] = jan1 + (i << 6) + Long.numberOfTrailingZeros(w);
+                    names[n] = e.names[rank++];
+                }
+            }
+        }
+        return new HolidayTimeline(days, names);
+    }
+
+    /** Up to {@code limit} holidays on or before {@code date}, newest first. */
+    List<HolidaySummary> lastOnOrBefore(LocalDate date, int limit) {
+        int end = upperBound((int) date.toEpochDay());
+        int from = Math.max(0, end - limit);
+        HolidaySummary[] out = new HolidaySummary[end - from];
+        for (int i = end - 1, k = 0; i >= from; i--) out[k++] = summary(i);
+        return List.of(out);
+    }
+
+    /** Up to {@code limit} holidays strictly after {@code date}, oldest first. */
+    List<HolidaySummary> nextAfter(LocalDate date, int limit) {
+        int start = upperBound((int) date.toEpochDay());
+        int to = Math.min(epochDays.length, start + limit);
+        HolidaySummary[] out = new HolidaySummary[to - start];
+        for (int i = start; i < to; i++) out[i - start] = summary(i);
+        return List.of(out);
+    }
+
+    int size() {
+        return epochDays.length;
+    }
+
+    // index of the first holiday after epochDay
+    private int upperBound(int epochDay) {
+        int i = Arrays.binarySearch(epochDays, epochDay);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private HolidaySummary summary(int i) {
+        return new HolidaySummary(LocalDate.ofEpochDay(epochDays[i]), names[i]);
+    }
+}
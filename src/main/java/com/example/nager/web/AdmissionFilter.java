@@ -0,0 +1,93 @@
+package com.example.nager.web;
+
+import com.example.nager.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the work in flight for {@code /api/holidays}: each request costs one unit per requested country (or the
+ * fixed cost of its path) and is refused with 503 and {@code Retry-After} while the capacity is taken, instead of
+ * queueing behind the requests already running. Ordered after the response cache, so hits are never refused.
+ */
+@Component
+@Order(AdmissionFilter.ORDER)
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionFilter implements WebFilter {
+    static final int ORDER = ResponseCacheFilter.ORDER + 1;
+    private static final String PREFIX = "/api/holidays/";
+    private final AdmissionProperties props;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter admitted;
+    private final Counter rejected;
+
+    public AdmissionFilter(AdmissionProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.admitted = counter(meterRegistry, "admitted");
+        this.rejected = counter(meterRegistry, "rejected");
+        Gauge.builder("holiday.admission.inflight", inFlight, AtomicInteger::get)
+                .description("Cost units of admitted requests still running").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getPath().value().startsWith(PREFIX)) return chain.filter(exchange);
+        int cost = Math.min(cost(request), props.getCapacity());
+        if (!tryAcquire(cost)) {
+            rejected.increment();
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(props.getRetryAfterSeconds()));
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests in flight"));
+        }
+        admitted.increment();
+        return chain.filter(exchange).doFinally(signal -> inFlight.addAndGet(-cost));
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    // a request costlier than what is free still runs when nothing else does, so the capacity is a bound, not a floor
+    private boolean tryAcquire(int cost) {
+        while (true) {
+            int current = inFlight.get();
+            if (current > 0 && current + cost > props.getCapacity()) return false;
+            if (inFlight.compareAndSet(current, current + cost)) return true;
+        }
+    }
+
+    private int cost(ServerHttpRequest request) {
+        String path = request.getPath().value();
+        String longest = null;
+        for (String prefix : props.getCosts().keySet()) {
+            if (path.startsWith(prefix) && (longest == null || prefix.length() > longest.length())) longest = prefix;
+        }
+        if (longest != null) return Math.max(1, props.getCosts().get(longest));
+        List<String> countries = request.getQueryParams().get("countries");
+        if (countries == null) return 1;
+        int n = 0;
+        for (String csv : countries) {
+            for (String code : csv.split(",")) if (!code.isBlank()) n++;
+        }
+        return Math.max(1, n);
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("holiday.admission").tag("result", result)
+                .description("Inbound requests by admission outcome").register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.nager.web;
+
+import com.example.nager.client.Deadline;
+import com.example.nager.config.DeadlineProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Gives every {@code /api/holidays} request a deadline: the caller's header if present (capped), else the budget of
+ * the longest matching configured path, else the default. The service reads it from the Reactor Context; when
+ * it passes, the whole request is cancelled and answered with 504. Streams run for as long as their client listens.
+ */
+@Component
+@Order(AdmissionFilter.ORDER + 1)
+@ConditionalOnProperty(name = "app.deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineFilter implements WebFilter {
+    private static final String PREFIX = "/api/holidays/";
+    private final DeadlineProperties props;
+
+    public DeadlineFilter(DeadlineProperties props) {
+        this.props = props;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!path.startsWith(PREFIX) || path.endsWith("/stream")) return chain.filter(exchange);
+        Duration budget = budget(request, path);
+        Deadline deadline = Deadline.after(budget);
+        return chain.filter(exchange)
+                .contextWrite(deadline::putIn)
+                .timeout(budget, Mono.error(Deadline::exceeded));
+    }
+
+    private Duration budget(ServerHttpRequest request, String path) {
+        String header = request.getHeaders().getFirst(props.getHeader());
+        if (header != null) {
+            try {
+                long ms = Long.parseLong(header.trim());
+                if (ms > 0) return Duration.ofMillis(Math.min(ms, props.getMaxMs()));
+            } catch (NumberFormatException ignored) {
+                // an unreadable budget falls back to the configured one
+            }
+        }
+        String longest = null;
+        for (String prefix : props.getPaths().keySet()) {
+            if (path.startsWith(prefix) && (longest == null || prefix.length() > longest.length())) longest = prefix;
+        }
+        return Duration.ofMillis(longest != null ? props.getPaths().get(longest) : props.getDefaultMs());
+    }
+}
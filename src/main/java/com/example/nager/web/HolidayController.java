@@ -1,17 +1,24 @@
 package com.example.nager.web;
 
 import com.example.nager.model.*; import com.example.nager.service.HolidayService;
+import jakarta.validation.constraints.Max; import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank; import jakarta.validation.constraints.Pattern;
 import org.slf4j.Logger; import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus; import org.springframework.http.MediaType; import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Mono;
-import java.time.LocalDate; import java.util.Arrays; import java.util.List;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux; import reactor.core.publisher.Mono;
+import java.time.LocalDate; import java.util.ArrayList; import java.util.Arrays; import java.util.Collections; import java.util.List; import java.util.function.Function;
 import io.swagger.v3.oas.annotations.Operation;
 
 @RestController @RequestMapping("/api/holidays") @Validated
 public class HolidayController {
     private static final Logger log = LoggerFactory.getLogger(HolidayController.class);
+    private static final int MAX_BUSINESS_DAY_SPAN_YEARS = 20;
+    @Value("${app.batch.max-queries:100}") private int maxBatchQueries = 100;
     private final HolidayService holidayService; public HolidayController(HolidayService holidayService) { this.holidayService = holidayService; }
 
     @Operation(summary = "Last 3 celebrated holidays")
@@ -21,15 +28,60 @@ public class HolidayController {
         return holidayService.getLastThreeHolidays(countryCode.toUpperCase(), LocalDate.now());
     }
 
+    @Operation(summary = "Last n holidays on or before a date (default today), newest first")
+    @GetMapping("/last-n/{countryCode}")
+    public Mono<List<HolidaySummary>> lastN(@PathVariable @Pattern(regexp = "^[A-Za-z]{2}$", message = "Use ISO 3166-1 alpha-2 code") String countryCode,
+                                            @RequestParam(defaultValue = "3") @Min(1) @Max(100) int n,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("GET /last-n/{} n={} date={}", countryCode, n, date);
+        return holidayService.getLastHolidays(countryCode.toUpperCase(), date != null ? date : LocalDate.now(), n);
+    }
+
+    @Operation(summary = "Next n holidays after a date (default today), oldest first")
+    @GetMapping("/next-n/{countryCode}")
+    public Mono<List<HolidaySummary>> nextN(@PathVariable @Pattern(regexp = "^[A-Za-z]{2}$", message = "Use ISO 3166-1 alpha-2 code") String countryCode,
+                                            @RequestParam(defaultValue = "3") @Min(1) @Max(100) int n,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("GET /next-n/{} n={} date={}", countryCode, n, date);
+        return holidayService.getNextHolidays(countryCode.toUpperCase(), date != null ? date : LocalDate.now(), n);
+    }
+
     @Operation(summary = "Weekday holiday counts")
     @GetMapping("/weekday-count")
     public Mono<List<CountryHolidayCount>> weekdayCount(@RequestParam int year,
                                                         @RequestParam("countries") @NotBlank String countriesCsv) {
-        List<String> codes = Arrays.stream(countriesCsv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(String::toUpperCase).toList();
+        List<String> codes = parseCodes(countriesCsv);
         log.info("GET /weekday-count year={} countries={}", year, codes);
         return holidayService.countWeekdayHolidays(year, codes);
     }
 
+    @Operation(summary = "Weekday holiday counts streamed as each country arrives, closed by a ranked summary")
+    @GetMapping(value = "/weekday-count/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> weekdayCountNdjson(@RequestParam int year,
+                                           @RequestParam("countries") @NotBlank String countriesCsv) {
+        List<String> codes = parseCodes(countriesCsv);
+        log.info("GET /weekday-count/stream (ndjson) year={} countries={}", year, codes);
+        return withSummary(year, holidayService.streamWeekdayHolidays(year, codes), count -> count, summary -> summary);
+    }
+
+    @Operation(summary = "Weekday holiday counts as server-sent events: one 'count' per country, then 'summary'")
+    @GetMapping(value = "/weekday-count/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> weekdayCountSse(@RequestParam int year,
+                                                         @RequestParam("countries") @NotBlank String countriesCsv) {
+        List<String> codes = parseCodes(countriesCsv);
+        log.info("GET /weekday-count/stream (sse) year={} countries={}", year, codes);
+        return withSummary(year, holidayService.streamWeekdayHolidays(year, codes),
+                count -> ServerSentEvent.<Object>builder(count).event("count").id(count.getCountryCode()).build(),
+                summary -> ServerSentEvent.<Object>builder(summary).event("summary").build());
+    }
+
+    @Operation(summary = "Weekday holiday counts for every country supported by Nager.Date")
+    @GetMapping("/weekday-count/all")
+    public Mono<List<CountryHolidayCount>> weekdayCountAll(@RequestParam int year) {
+        log.info("GET /weekday-count/all year={}", year);
+        return holidayService.countWeekdayHolidaysWorldwide(year);
+    }
+
     @Operation(summary = "Common holiday dates")
     @GetMapping("/common-dates")
     public Mono<List<CommonHoliday>> commonDates(@RequestParam int year,
@@ -38,4 +90,78 @@ public class HolidayController {
         log.info("GET /common-dates year={} countryA={} countryB={} ", year, countryA, countryB);
         return holidayService.commonDates(year, countryA.toUpperCase(), countryB.toUpperCase());
     }
+
+    @Operation(summary = "Holiday dates shared by every listed country")
+    @GetMapping("/common-dates/shared")
+    public Mono<List<SharedHoliday>> sharedDates(@RequestParam int year,
+                                                 @RequestParam("countries") @NotBlank String countriesCsv) {
+        List<String> codes = parseCodes(countriesCsv);
+        log.info("GET /common-dates/shared year={} countries={}", year, codes);
+        return holidayService.sharedDates(year, codes);
+    }
+
+    @Operation(summary = "Number of shared holidays for every pair of listed countries")
+    @GetMapping("/overlap-matrix")
+    public Mono<OverlapMatrix> overlapMatrix(@RequestParam int year,
+                                             @RequestParam("countries") @NotBlank String countriesCsv) {
+        List<String> codes = parseCodes(countriesCsv);
+        log.info("GET /overlap-matrix year={} countries={}", year, codes.size());
+        return holidayService.overlapMatrix(year, codes);
+    }
+
+    @Operation(summary = "The n-th business day after (n > 0) or before (n < 0) a date")
+    @GetMapping("/business-days/{countryCode}/add")
+    public Mono<BusinessDays> addBusinessDays(@PathVariable @Pattern(regexp = "^[A-Za-z]{2}$", message = "Use ISO 3166-1 alpha-2 code") String countryCode,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                              @RequestParam @Min(-2000) @Max(2000) int days) {
+        String cc = countryCode.toUpperCase();
+        log.info("GET /business-days/{}/add date={} days={}", cc, date, days);
+        return holidayService.addBusinessDays(cc, date, days).map(result -> new BusinessDays(cc, date, result, days));
+    }
+
+    @Operation(summary = "Business days after 'from' up to and including 'to'")
+    @GetMapping("/business-days/{countryCode}/count")
+    public Mono<BusinessDays> countBusinessDays(@PathVariable @Pattern(regexp = "^[A-Za-z]{2}$", message = "Use ISO 3166-1 alpha-2 code") String countryCode,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        String cc = countryCode.toUpperCase();
+        log.info("GET /business-days/{}/count from={} to={}", cc, from, to);
+        if (Math.abs(to.getYear() - from.getYear()) > MAX_BUSINESS_DAY_SPAN_YEARS) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range must not exceed " + MAX_BUSINESS_DAY_SPAN_YEARS + " years"));
+        }
+        return holidayService.countBusinessDays(cc, from, to).map(count -> new BusinessDays(cc, from, to, count));
+    }
+
+    @Operation(summary = "Whether a date is a business day (neither a weekend day nor a public holiday)")
+    @GetMapping("/business-days/{countryCode}/check")
+    public Mono<BusinessDayCheck> checkBusinessDay(@PathVariable @Pattern(regexp = "^[A-Za-z]{2}$", message = "Use ISO 3166-1 alpha-2 code") String countryCode,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        String cc = countryCode.toUpperCase();
+        log.info("GET /business-days/{}/check date={}", cc, date);
+        return holidayService.isBusinessDay(cc, date).map(business -> new BusinessDayCheck(cc, date, business));
+    }
+
+    @Operation(summary = "Several last-3/last-n/next-n/weekday-count/common-dates queries in one call; each country-year is fetched once")
+    @PostMapping("/batch")
+    public Mono<List<BatchResult>> batch(@RequestBody List<BatchQuery> queries) {
+        log.info("POST /batch queries={}", queries.size());
+        if (queries.size() > maxBatchQueries) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchQueries + " queries per batch"));
+        }
+        return holidayService.batch(queries, LocalDate.now());
+    }
+
+    private static List<String> parseCodes(String countriesCsv) {
+        return Arrays.stream(countriesCsv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(String::toUpperCase).toList();
+    }
+
+    // only the per-country counts are retained for the closing summary; each element is written as soon as it arrives
+    private static <T> Flux<T> withSummary(int year, Flux<CountryHolidayCount> counts,
+                                           Function<CountryHolidayCount, T> onCount, Function<WeekdayCountSummary, T> onSummary) {
+        return Flux.defer(() -> {
+            List<CountryHolidayCount> seen = new ArrayList<>();
+            return counts.doOnNext(seen::add).map(onCount)
+                    .concatWith(Mono.fromSupplier(() -> { Collections.sort(seen); return onSummary.apply(new WeekdayCountSummary(year, seen)); }));
+        });
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.nager.web;
+
+import com.example.nager.cache.PeerCache;
+import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.model.PublicHoliday;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Answers other instances from the local publicHolidays cache, whatever the key; a miss is loaded from Nager.Date and
+ * never forwarded, so peers with disagreeing rings cannot loop. The upstream validators behind the list travel in
+ * headers. Only requests carrying {@code app.peers.token} are served.
+ */
+@Hidden
+@RestController
+@ConditionalOnProperty(name = "app.peers.enabled", havingValue = "true")
+public class PeerController {
+    private final NagerDateReactiveClient client;
+    private final PeerCache peers;
+
+    public PeerController(NagerDateReactiveClient client, PeerCache peers) {
+        this.client = client;
+        this.peers = peers;
+    }
+
+    @GetMapping(PeerCache.PATH)
+    public Mono<ResponseEntity<List<PublicHoliday>>> publicHolidays(@PathVariable int year, @PathVariable String countryCode,
+                                                    @RequestHeader(name = PeerCache.TOKEN_HEADER, required = false) String token) {
+        if (!peers.authorized(token)) return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a peer"));
+        String cc = countryCode.toUpperCase();
+        return client.getPublicHolidaysForPeer(year, cc)
+                .map(holidays -> ResponseEntity.ok().headers(client.upstreamValidators(year, cc, holidays)).body(holidays));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.nager.web;
+
+import com.example.nager.client.PublicHolidaysChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Caches the encoded JSON of successful {@code /api/holidays} GET responses with a strong ETag. Hits are written as
+ * a wrapped copy-free buffer over the stored bytes, so neither the service nor Jackson runs; a matching
+ * {@code If-None-Match} is answered with 304. Streaming endpoints are not cached.
+ */
+@Component
+@Order(ResponseCacheFilter.ORDER)
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheFilter implements WebFilter {
+    static final int ORDER = 0;
+    private static final String PREFIX = "/api/holidays/";
+    private static final int ENTRY_OVERHEAD_BYTES = 96; // cache node, entry object, etag string
+
+    private final Cache<String, Entry> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+
+    record Entry(byte[] body, String etag) { }
+
+    public ResponseCacheFilter(MeterRegistry meterRegistry,
+                               @Value("${app.response-cache.maximum-weight-bytes:16777216}") long maximumWeightBytes,
+                               @Value("${app.response-cache.ttl-ms:3600000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher((String key, Entry e) -> ENTRY_OVERHEAD_BYTES + 2 * key.length() + e.body.length)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.notModified = counter(meterRegistry, "not_modified");
+        Gauge.builder("holiday.response.cache.bytes", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .baseUnit("bytes").description("Encoded responses held by the response cache").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!cacheable(request)) return chain.filter(exchange);
+        String key = key(request);
+        Entry entry = cache.getIfPresent(key);
+        ServerHttpResponse response = exchange.getResponse();
+        if (entry != null) {
+            hits.increment();
+            return write(request, response, entry);
+        }
+        misses.increment();
+        return chain.filter(exchange.mutate().response(new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!storable(getDelegate())) return super.writeWith(body);
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    Entry stored = new Entry(bytes, "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"");
+                    cache.put(key, stored);
+                    return write(request, getDelegate(), stored);
+                });
+            }
+        }).build());
+    }
+
+    @EventListener(PublicHolidaysChangedEvent.class)
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Mono<Void> write(ServerHttpRequest request, ServerHttpResponse response, Entry entry) {
+        response.getHeaders().setETag(entry.etag);
+        if (matches(request.getHeaders().getIfNoneMatch(), entry.etag)) {
+            notModified.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(entry.body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body)));
+    }
+
+    private static boolean cacheable(ServerHttpRequest request) {
+        String path = request.getPath().value();
+        if (request.getMethod() != HttpMethod.GET || !path.startsWith(PREFIX) || path.endsWith("/stream")) return false;
+        List<MediaType> accept = request.getHeaders().getAccept();
+        return accept.isEmpty() || accept.stream().anyMatch(MediaType.APPLICATION_JSON::isCompatibleWith);
+    }
+
+    private static boolean storable(ServerHttpResponse response) {
+        HttpStatus status = response.getStatusCode() == null ? HttpStatus.OK : HttpStatus.resolve(response.getStatusCode().value());
+        MediaType type = response.getHeaders().getContentType();
+        return status == HttpStatus.OK && type != null && MediaType.APPLICATION_JSON.isCompatibleWith(type);
+    }
+
+    // several endpoints default to today's date, so the date is part of every key
+    private static String key(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return request.getPath().value() + (query == null ? "" : "?" + query) + "@" + LocalDate.now();
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String tag : ifNoneMatch) {
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) return true;
+        }
+        return false;
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("holiday.response.cache").tag("result", result)
+                .description("Response cache lookups by outcome").register(registry);
+    }
+}
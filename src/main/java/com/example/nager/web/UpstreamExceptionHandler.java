@@ -0,0 +1,31 @@
+package com.example.nager.web;
+
+import com.example.nager.client.ConcurrencyLimitExceededException;
+import com.example.nager.config.AdmissionProperties;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Upstream limiter rejections (the Nager rate limiter or the adaptive concurrency limit) that reach a controller are
+ * answered like admission refusals, 503 with {@code Retry-After}, instead of a 500.
+ */
+@RestControllerAdvice
+public class UpstreamExceptionHandler {
+    private final AdmissionProperties props;
+
+    public UpstreamExceptionHandler(AdmissionProperties props) {
+        this.props = props;
+    }
+
+    @ExceptionHandler({RequestNotPermitted.class, ConcurrencyLimitExceededException.class})
+    public ResponseEntity<ProblemDetail> limited(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(props.getRetryAfterSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+}
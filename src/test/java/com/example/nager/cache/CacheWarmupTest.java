@@ -0,0 +1,107 @@
+package com.example.nager.cache;
+
+import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.config.WarmupProperties;
+import com.example.nager.model.AvailableCountry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheWarmupTest {
+
+    private final NagerDateReactiveClient client = mock(NagerDateReactiveClient.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RateLimiterRegistry rateLimiters = RateLimiterRegistry.of(RateLimiterConfig.custom()
+            .limitRefreshPeriod(Duration.ofMillis(10)).build());
+    private final WarmupProperties props = new WarmupProperties();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final int year = Year.now().getValue();
+
+    CacheWarmupTest() {
+        props.setEnabled(true);
+    }
+
+    @Test
+    void every_country_year_of_the_matrix_is_loaded_before_readiness_turns_up() {
+        AvailableCountry gb = new AvailableCountry();
+        gb.setCountryCode("GB");
+        AvailableCountry fr = new AvailableCountry();
+        fr.setCountryCode("FR");
+        when(client.getAvailableCountries()).thenReturn(Mono.just(List.of(gb, fr)));
+        when(client.getPublicHolidaysInBackground(anyInt(), anyString())).thenReturn(Mono.just(List.of()));
+        // one rejection: retried in the next permit period rather than counted as a failure
+        when(client.getPublicHolidaysInBackground(year, "FR"))
+                .thenReturn(Mono.error(RequestNotPermitted.createRequestNotPermitted(RateLimiter.ofDefaults("nager"))))
+                .thenReturn(Mono.just(List.of()));
+        CacheWarmup warmup = warmup();
+        warmup.onReadiness(applicationReady());
+        assertThat(readiness()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+
+        warmup.run().block(Duration.ofSeconds(5));
+
+        for (String cc : List.of("GB", "FR")) for (int y = year - 1; y <= year + 1; y++) verify(client, atLeastOnce()).getPublicHolidaysInBackground(y, cc);
+        assertThat(readiness()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(registry.get("holiday.warmup.entries").tag("state", "total").gauge().value()).isEqualTo(6);
+        assertThat(registry.get("holiday.warmup.entries").tag("state", "loaded").gauge().value()).isEqualTo(6);
+        assertThat(registry.get("holiday.warmup.entries").tag("state", "failed").gauge().value()).isZero();
+        assertThat(registry.get("holiday.warmup.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void readiness_turns_up_at_the_deadline_while_loading_continues() throws InterruptedException {
+        props.setCountries(List.of("gb"));
+        props.setYearsBefore(0);
+        props.setYearsAfter(0);
+        props.setDeadlineMs(100);
+        when(client.getPublicHolidaysInBackground(year, "GB")).thenReturn(Mono.never());
+        CacheWarmup warmup = warmup();
+
+        warmup.start();
+        warmup.onReadiness(applicationReady());
+        assertThat(readiness()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+        Thread.sleep(200);
+
+        assertThat(readiness()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(registry.get("holiday.warmup.entries").tag("state", "loaded").gauge().value()).isZero();
+        verify(client, never()).getAvailableCountries();
+    }
+
+    @Test
+    void disabled_warm_up_never_holds_readiness() {
+        props.setEnabled(false);
+        CacheWarmup warmup = warmup();
+
+        warmup.start();
+        warmup.onReadiness(applicationReady());
+
+        assertThat(events).isEmpty();
+        verifyNoInteractions(client);
+    }
+
+    private CacheWarmup warmup() {
+        return new CacheWarmup(client, props, events::add, rateLimiters, registry);
+    }
+
+    // what Spring Boot publishes right after ApplicationReadyEvent
+    private AvailabilityChangeEvent<ReadinessState> applicationReady() {
+        return new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    private ReadinessState readiness() {
+        return events.isEmpty() ? null : (ReadinessState) ((AvailabilityChangeEvent<?>) events.get(events.size() - 1)).getState();
+    }
+}
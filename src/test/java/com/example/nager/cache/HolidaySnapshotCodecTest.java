@@ -0,0 +1,50 @@
+package com.example.nager.cache;
+
+import com.example.nager.model.PublicHoliday;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HolidaySnapshotCodecTest {
+
+    private PublicHoliday ph(String isoDate, String name, String localName, List<String> counties, Integer launchYear) {
+        return new PublicHoliday(LocalDate.parse(isoDate), localName, name, "DE", true, counties == null, counties, launchYear, List.of("Public", "Bank"));
+    }
+
+    @Test
+    void round_trips_every_field_and_shares_repeated_strings() throws Exception {
+        Map<String, List<PublicHoliday>> entries = new LinkedHashMap<>();
+        entries.put("2024:DE", List.of(
+                ph("2024-01-01", "New Year's Day", "Neujahr", null, null),
+                ph("2024-01-06", "Epiphany", "Heilige Drei Könige", List.of("DE-BW", "DE-BY", "DE-ST"), 1967)));
+        entries.put("2025:DE", List.of(
+                ph("2025-01-01", "New Year's Day", "Neujahr", null, null),
+                ph("1965-10-03", "Old date", null, List.of(), null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HolidaySnapshotCodec.write(entries, 1234L, out);
+        HolidaySnapshotCodec.Snapshot snapshot = HolidaySnapshotCodec.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertThat(snapshot.writtenAtEpochMs()).isEqualTo(1234L);
+        assertThat(snapshot.entries()).containsOnlyKeys("2024:DE", "2025:DE");
+        assertThat(snapshot.entries().get("2024:DE")).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(entries.get("2024:DE"));
+        assertThat(snapshot.entries().get("2025:DE")).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(entries.get("2025:DE"));
+        // header (16 bytes) + string table written once + ~10 bytes per holiday
+        assertThat(out.size()).isLessThan(200);
+    }
+
+    @Test
+    void rejects_foreign_files() {
+        assertThatThrownBy(() -> HolidaySnapshotCodec.read(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 0, 0, 0, 1})))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.nager.cache;
+
+import com.example.nager.config.CacheConfig;
+import com.example.nager.model.PublicHoliday;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HolidaySnapshotStoreTest {
+
+    @TempDir Path dir;
+    private final List<Long> upstreamCalls = new CopyOnWriteArrayList<>();
+
+    @Test
+    void a_fresh_store_serves_the_written_snapshot_and_refreshes_it_paced() throws Exception {
+        Path path = dir.resolve("public-holidays.snapshot");
+        CaffeineCacheManager before = cacheManager();
+        before.getCache(CacheConfig.PUBLIC_HOLIDAYS).put("2030:GB", List.of(holiday("2030-12-25", "Christmas Day")));
+        before.getCache(CacheConfig.PUBLIC_HOLIDAYS).put("2030:FR", List.of(holiday("2030-07-14", "Fête nationale")));
+        store(before, path, 60_000).write();
+
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(path); // the temp file was moved into place
+        }
+
+        CaffeineCacheManager after = cacheManager();
+        HolidaySnapshotStore restarted = store(after, path, 150);
+        restarted.afterSingletonsInstantiated();
+
+        Cache cache = after.getCache(CacheConfig.PUBLIC_HOLIDAYS);
+        assertThat(cache.get("2030:GB", List.class)).extracting("name").containsExactly("Christmas Day");
+        assertThat(cache.get("2030:FR", List.class)).extracting("name").containsExactly("Fête nationale");
+        assertThat(upstreamCalls).isEmpty();
+
+        Thread.sleep(600);
+        assertThat(upstreamCalls).hasSize(2);
+        assertThat(upstreamCalls.get(1) - upstreamCalls.get(0)).isGreaterThanOrEqualTo(100_000_000L);
+    }
+
+    @Test
+    void a_missing_or_unreadable_snapshot_starts_cold() throws Exception {
+        Path path = dir.resolve("public-holidays.snapshot");
+        CaffeineCacheManager cm = cacheManager();
+        store(cm, path, 0).afterSingletonsInstantiated();
+
+        Files.write(path, new byte[] {1, 2, 3});
+        store(cm, path, 0).afterSingletonsInstantiated();
+
+        assertThat(((com.github.benmanes.caffeine.cache.Cache<?, ?>) cm.getCache(CacheConfig.PUBLIC_HOLIDAYS).getNativeCache()).asMap()).isEmpty();
+        assertThat(upstreamCalls).isEmpty();
+    }
+
+    // the refresh-ahead cache of CacheConfig, with a loader that only records when upstream was asked
+    private CaffeineCacheManager cacheManager() {
+        CaffeineCacheManager cm = new CaffeineCacheManager();
+        cm.setAsyncCacheMode(true);
+        cm.registerCustomCache(CacheConfig.PUBLIC_HOLIDAYS, Caffeine.newBuilder().buildAsync((key, executor) -> {
+            upstreamCalls.add(System.nanoTime());
+            return CompletableFuture.completedFuture(List.of());
+        }));
+        return cm;
+    }
+
+    private static HolidaySnapshotStore store(CaffeineCacheManager cm, Path path, long refreshSpacingMs) {
+        HolidaySnapshotStore store = new HolidaySnapshotStore(cm, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "path", path);
+        ReflectionTestUtils.setField(store, "refreshSpacingMs", refreshSpacingMs);
+        return store;
+    }
+
+    private static PublicHoliday holiday(String isoDate, String name) {
+        return new PublicHoliday(LocalDate.parse(isoDate), name, name, "GB", true, true, null, null, List.of("Public"));
+    }
+}
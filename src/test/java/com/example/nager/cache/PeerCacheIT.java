@@ -0,0 +1,130 @@
+package com.example.nager.cache;
+
+import com.example.nager.NagerHolidaysApplication;
+import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.client.PublicHolidaysChangedEvent;
+import com.example.nager.client.PublicHolidaysUnchangedEvent;
+import com.example.nager.model.PublicHoliday;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.*;
+
+// one instance of the ring in process; the two other members, /b and /c, are answered by WireMock like Nager.Date is
+@SpringBootTest(classes = NagerHolidaysApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PeerCacheIT {
+    static WireMockServer wm = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    @Autowired WebTestClient webClient;
+    @Autowired PeerCache peers;
+    @Autowired NagerDateReactiveClient client;
+    @Autowired ConfigurableApplicationContext context;
+
+    static {
+        wm.start();
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        if (wm != null && wm.isRunning()) wm.stop();
+    }
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) {
+        String base = "http://localhost:" + wm.port();
+        registry.add("nager.base-url", () -> base);
+        registry.add("app.peers.enabled", () -> "true");
+        registry.add("app.peers.self", () -> "http://localhost:1");
+        registry.add("app.peers.members", () -> String.join(",", List.of("http://localhost:1", base + "/b", base + "/c")));
+        registry.add("app.peers.token", () -> "s3cret");
+        registry.add("app.peers.timeout-ms", () -> "5000"); // the first call also sets up the peer client's connections
+    }
+
+    @Test
+    void peers_are_served_from_the_local_cache_whoever_owns_the_key_and_only_with_the_token() {
+        int owned = year(2060, true);
+        int foreign = year(2060, false);
+        for (int year : List.of(owned, foreign)) {
+            wm.stubFor(get(urlEqualTo("/PublicHolidays/" + year + "/GB"))
+                    .willReturn(okJson("[{\"date\":\"" + year + "-12-25\",\"name\":\"Christmas Day\",\"localName\":\"Christmas Day\"}]")
+                            .withHeader("ETag", "\"" + year + "\"")));
+        }
+
+        webClient.get().uri(PeerCache.PATH, owned, "GB").exchange().expectStatus().isForbidden();
+        webClient.get().uri(PeerCache.PATH, owned, "GB").header(PeerCache.TOKEN_HEADER, "guess").exchange().expectStatus().isForbidden();
+        for (int i = 0; i < 2; i++) {
+            for (int year : List.of(owned, foreign)) {
+                webClient.get().uri(PeerCache.PATH, year, "gb").header(PeerCache.TOKEN_HEADER, "s3cret").exchange()
+                        .expectStatus().isOk()
+                        .expectHeader().valueEquals(PeerCache.ETAG_HEADER, "\"" + year + "\"")
+                        .expectBody().jsonPath("$[0].name").isEqualTo("Christmas Day");
+            }
+        }
+
+        wm.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/" + owned + "/GB")));
+        wm.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/" + foreign + "/GB")));
+        wm.verify(0, getRequestedFor(urlPathMatching("/[bc]/.*/(" + owned + "|" + foreign + ")/GB")));
+    }
+
+    @Test
+    void a_peers_copy_counts_as_unchanged_and_its_validators_make_the_next_upstream_fetch_conditional() throws InterruptedException {
+        int year = year(2080, false);
+        String owner = "/[bc]/internal/peers/public-holidays/" + year + "/GB";
+        // the owner's own encoding differs from Nager.Date's, here in field order and layout
+        String copy = "[ {\n  \"localName\" : \"Christmas Day\",\n  \"name\" : \"Christmas Day\",\n  \"date\" : \"" + year + "-12-25\"\n} ]";
+        String upstream = "[{\"date\":\"" + year + "-12-25\",\"name\":\"Christmas Day\",\"localName\":\"Christmas Day\"}]";
+        wm.stubFor(get(urlPathMatching(owner)).inScenario("owner").whenScenarioStateIs(STARTED)
+                .withHeader(PeerCache.TOKEN_HEADER, equalTo("s3cret"))
+                .willReturn(okJson(copy).withHeader(PeerCache.ETAG_HEADER, "\"v1\"")).willSetStateTo("down"));
+        wm.stubFor(get(urlPathMatching(owner)).inScenario("owner").whenScenarioStateIs("down")
+                .willReturn(aResponse().withStatus(503)).willSetStateTo("back"));
+        wm.stubFor(get(urlPathMatching(owner)).inScenario("owner").whenScenarioStateIs("back")
+                .willReturn(okJson(copy)));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/" + year + "/GB")).willReturn(okJson(upstream)));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/" + year + "/GB")).withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)));
+        BlockingQueue<Object> published = new LinkedBlockingQueue<>();
+        context.addApplicationListener(ApplicationListener.<PublicHolidaysChangedEvent>forPayload(published::add));
+        context.addApplicationListener(ApplicationListener.<PublicHolidaysUnchangedEvent>forPayload(published::add));
+
+        List<PublicHoliday> fromOwner = client.fetchPublicHolidays(year, "GB").block(Duration.ofSeconds(10));
+        wm.verify(0, getRequestedFor(urlEqualTo("/PublicHolidays/" + year + "/GB")));
+        List<PublicHoliday> notModified = client.fetchPublicHolidays(year, "GB").block(Duration.ofSeconds(10));
+        List<PublicHoliday> ownerAgain = client.fetchPublicHolidays(year, "GB").block(Duration.ofSeconds(10));
+
+        assertThat(fromOwner).extracting("name").containsExactly("Christmas Day");
+        assertThat(notModified).isSameAs(fromOwner);
+        assertThat(ownerAgain).isSameAs(fromOwner);
+        wm.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/" + year + "/GB")).withHeader("If-None-Match", equalTo("\"v1\"")));
+        wm.verify(3, getRequestedFor(urlPathMatching(owner)));
+        assertThat(published.poll(5, TimeUnit.SECONDS)).isEqualTo(new PublicHolidaysUnchangedEvent(year, "GB"));
+        assertThat(published.poll(5, TimeUnit.SECONDS)).isEqualTo(new PublicHolidaysUnchangedEvent(year, "GB"));
+        assertThat(published.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private int year(int from, boolean ownedLocally) {
+        int year = from;
+        while (peers.ownedLocally(year, "GB") != ownedLocally) year++;
+        return year;
+    }
+}
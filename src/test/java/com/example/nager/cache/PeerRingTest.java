@@ -0,0 +1,50 @@
+package com.example.nager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PeerRingTest {
+
+    private static final List<String> MEMBERS = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+
+    @Test
+    void keys_spread_over_every_member() {
+        PeerRing ring = new PeerRing(MEMBERS, 128);
+        Map<String, Integer> owned = new HashMap<>();
+        for (String key : keys()) owned.merge(ring.owner(key), 1, Integer::sum);
+
+        assertThat(owned).containsOnlyKeys(MEMBERS);
+        assertThat(owned.values()).allSatisfy(n -> assertThat(n).isBetween(keys().size() / 5, keys().size() / 2));
+    }
+
+    @Test
+    void removing_a_member_moves_only_its_own_keys() {
+        PeerRing three = new PeerRing(MEMBERS, 128);
+        PeerRing two = new PeerRing(MEMBERS.subList(0, 2), 128);
+
+        for (String key : keys()) {
+            String before = three.owner(key);
+            if (!before.equals("http://c:8080")) assertThat(two.owner(key)).isEqualTo(before);
+        }
+    }
+
+    @Test
+    void every_instance_builds_the_same_ring() {
+        PeerRing ring = new PeerRing(MEMBERS, 128);
+        PeerRing reordered = new PeerRing(List.of("http://c:8080", "http://a:8080", "http://b:8080"), 128);
+
+        for (String key : keys()) assertThat(reordered.owner(key)).isEqualTo(ring.owner(key));
+    }
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        for (int year = 2000; year < 2040; year++) for (char a = 'A'; a <= 'Z'; a += 2) keys.add(year + ":" + a + "X");
+        return keys;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.nager.client;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void overload_cuts_the_limit_and_fast_successes_raise_it_again() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 1000);
+
+        assertThatThrownBy(() -> limiter.limit(Mono.error(WebClientResponseException.create(503, "Unavailable", null, null, null))).block())
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(limiter.currentLimit()).isEqualTo(9.0);
+        assertThatThrownBy(() -> limiter.limit(Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null))).block())
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(limiter.currentLimit()).isEqualTo(9.0);
+
+        // successes only count while at least half the limit is in use
+        List<Sinks.One<String>> calls = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Sinks.One<String> call = Sinks.one();
+            calls.add(call);
+            limiter.limit(call.asMono()).subscribe();
+        }
+        calls.forEach(c -> c.tryEmitValue("ok"));
+
+        assertThat(limiter.currentLimit()).isGreaterThan(9.0);
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(registry.get("nager.client.limit").gauge().value()).isEqualTo(limiter.currentLimit());
+    }
+
+    @Test
+    void rate_limiter_rejections_give_the_permit_back_without_moving_the_limit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 1000);
+        List<Sinks.One<String>> running = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Sinks.One<String> call = Sinks.one();
+            running.add(call);
+            limiter.limit(call.asMono()).subscribe();
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThatThrownBy(() -> limiter.limit(Mono.error(RequestNotPermitted.createRequestNotPermitted(RateLimiter.ofDefaults("nager")))).block())
+                    .isInstanceOf(RequestNotPermitted.class);
+        }
+
+        assertThat(limiter.currentLimit()).isEqualTo(10.0);
+        assertThat(limiter.inFlight()).isEqualTo(5);
+        running.forEach(c -> c.tryEmitValue("ok"));
+    }
+
+    @Test
+    void queued_foreground_calls_go_before_background_ones_and_a_full_queue_rejects() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 2, 1000);
+        Sinks.One<String> running = Sinks.one();
+        limiter.limit(running.asMono()).subscribe();
+        List<String> started = new CopyOnWriteArrayList<>();
+        AdaptiveConcurrencyLimiter.inBackground(limiter.limit(Mono.fromRunnable(() -> started.add("background")))).subscribe();
+        limiter.limit(Mono.fromRunnable(() -> started.add("foreground"))).subscribe();
+
+        assertThat(registry.get("nager.client.limit.queue").tag("priority", "background").gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> limiter.limit(Mono.just("third")).block()).isInstanceOf(ConcurrencyLimitExceededException.class);
+
+        running.tryEmitValue("done");
+
+        assertThat(started).containsExactly("foreground", "background");
+        assertThat(registry.get("nager.client.limit.rejected").tag("priority", "foreground").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void a_shared_background_call_moves_up_when_a_foreground_caller_joins_it() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 5, 1000);
+        Sinks.One<String> running = Sinks.one();
+        limiter.limit(running.asMono()).subscribe();
+        List<String> started = new CopyOnWriteArrayList<>();
+        AdaptiveConcurrencyLimiter.inBackground(limiter.limit(Mono.fromRunnable(() -> started.add("refresh")))).subscribe();
+        AtomicBoolean shared = new AtomicBoolean(true);
+        limiter.limit(Mono.fromRunnable(() -> started.add("shared"))).contextWrite(ctx -> AdaptiveConcurrencyLimiter.sharedBy(ctx, shared)).subscribe();
+        assertThat(limiter.queued(true)).isEqualTo(2);
+
+        limiter.promote(shared);
+
+        assertThat(shared).isFalse();
+        assertThat(limiter.queued(false)).isEqualTo(1);
+        running.tryEmitValue("done");
+        assertThat(started).containsExactly("shared", "refresh");
+    }
+
+    @Test
+    void a_waiter_gives_up_after_the_maximum_wait_without_leaking_a_permit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 5, 50);
+        Sinks.One<String> running = Sinks.one();
+        limiter.limit(running.asMono()).subscribe();
+
+        assertThatThrownBy(() -> limiter.limit(Mono.just("late")).block(Duration.ofSeconds(2)))
+                .isInstanceOf(ConcurrencyLimitExceededException.class);
+        running.tryEmitValue("done");
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.queued(false)).isZero();
+        assertThat(limiter.limit(Mono.just("next")).block(Duration.ofSeconds(2))).isEqualTo("next");
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueue, long maxWaitMs) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 100, 0.9, 2000, maxQueue, maxWaitMs, registry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.nager.client;
+
+import com.example.nager.model.AvailableCountry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CountryRegistryTest {
+
+    private final CountryRegistry registry = new CountryRegistry();
+
+    @Test
+    void every_code_passes_until_a_load_succeeds() {
+        assertThat(registry.supports("XX")).isTrue();
+        assertThat(registry.shouldLoad()).isTrue();
+        assertThat(registry.tryStartLoad()).isTrue();
+        assertThat(registry.tryStartLoad()).isFalse();
+
+        registry.loadFailed(Duration.ofHours(1));
+
+        assertThat(registry.supports("XX")).isTrue();
+        assertThat(registry.shouldLoad()).isFalse();
+        assertThat(registry.tryStartLoad()).isTrue();
+    }
+
+    @Test
+    void an_empty_load_is_reported_so_reloads_wait_like_after_a_failure() {
+        assertThat(registry.tryStartLoad()).isTrue();
+
+        assertThat(registry.loaded(List.of())).isFalse();
+        assertThat(registry.shouldLoad()).isTrue();
+        registry.loadFailed(Duration.ofHours(1)); // what the client does with an empty /AvailableCountries
+
+        assertThat(registry.shouldLoad()).isFalse();
+        assertThat(registry.supports("XX")).isTrue();
+        assertThat(registry.tryStartLoad()).isTrue();
+    }
+
+    @Test
+    void a_loaded_registry_rejects_unknown_codes_and_survives_an_empty_refresh() {
+        registry.tryStartLoad();
+        assertThat(registry.loaded(List.of(country("GB"), country("fr")))).isTrue();
+
+        assertThat(registry.supports("gb")).isTrue();
+        assertThat(registry.supports("FR")).isTrue();
+        assertThat(registry.supports("XX")).isFalse();
+        assertThat(registry.shouldLoad()).isFalse();
+
+        registry.update(List.of());
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.supports("XX")).isFalse();
+    }
+
+    private static AvailableCountry country(String code) {
+        AvailableCountry c = new AvailableCountry();
+        c.setCountryCode(code);
+        return c;
+    }
+}
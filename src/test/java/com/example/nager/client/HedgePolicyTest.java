@@ -0,0 +1,42 @@
+package com.example.nager.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HedgePolicyTest {
+
+    @Test
+    void the_delay_follows_the_tracked_percentile_once_enough_samples_are_known() {
+        HedgePolicy policy = new HedgePolicy(0.95, 0.05, 20, 50);
+        for (int ms = 1; ms < 20; ms++) policy.record("/a", Duration.ofMillis(ms * 10L).toNanos());
+        assertThat(policy.delay("/a")).isNull();
+
+        for (int ms = 20; ms <= 100; ms++) policy.record("/a", Duration.ofMillis(ms * 10L).toNanos());
+
+        assertThat(policy.delay("/a")).isEqualTo(Duration.ofMillis(950));
+        assertThat(policy.delay("/b")).isNull();
+    }
+
+    @Test
+    void the_delay_never_drops_below_the_floor() {
+        HedgePolicy policy = new HedgePolicy(0.95, 0.05, 1, 50);
+        policy.record("/a", Duration.ofMillis(3).toNanos());
+
+        assertThat(policy.delay("/a")).isEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    void hedges_stay_within_the_budget_of_primary_calls() {
+        HedgePolicy policy = new HedgePolicy(0.95, 0.05, 20, 50);
+        int granted = 0;
+        for (int i = 0; i < 1000; i++) {
+            policy.primary();
+            if (policy.tryAcquire()) granted++;
+        }
+
+        assertThat(granted).isEqualTo(50);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.nager.client;
+
+import com.example.nager.model.PublicHoliday;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HedgedRequestsIT {
+    private final WireMockServer wm = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HedgePolicy policy = spy(new HedgePolicy(0.95, 1.0, 20, 50));
+    private NagerDateReactiveClient client;
+
+    @BeforeEach
+    void start() {
+        wm.start();
+        client = new NagerDateReactiveClient(WebClient.create("http://localhost:" + wm.port()), RateLimiterRegistry.ofDefaults(),
+                meterRegistry, new ObjectMapper().registerModule(new JavaTimeModule()), event -> { }, 1000, 0);
+        // every primary call earns a whole hedge, so the budget never gets in the way here
+        ReflectionTestUtils.setField(client, "hedging", policy);
+    }
+
+    @AfterEach
+    void stop() {
+        wm.stop();
+    }
+
+    @Test
+    void a_call_slower_than_the_tracked_percentile_is_won_by_its_hedge_and_still_sampled() {
+        String body = "[{\"date\":\"2040-12-25\",\"name\":\"Christmas Day\",\"localName\":\"Christmas Day\"}]";
+        wm.stubFor(get(urlPathMatching("/PublicHolidays/20[0-3][0-9]/GB")).willReturn(okJson(body)));
+        for (int year = 2000; year < 2025; year++) client.fetchPublicHolidays(year, "GB").block(Duration.ofSeconds(5));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2040/GB")).inScenario("tail").whenScenarioStateIs(STARTED)
+                .willReturn(okJson(body).withFixedDelay(5000)).willSetStateTo("fast"));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2040/GB")).inScenario("tail").whenScenarioStateIs("fast")
+                .willReturn(okJson(body)));
+
+        long start = System.nanoTime();
+        List<PublicHoliday> holidays = client.fetchPublicHolidays(2040, "GB").block(Duration.ofSeconds(10));
+
+        assertThat(holidays).hasSize(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        wm.verify(2, getRequestedFor(urlEqualTo("/PublicHolidays/2040/GB")));
+        assertThat(meterRegistry.get("nager.client.hedges").tag("outcome", "sent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("nager.client.hedges").tag("outcome", "won").counter().count()).isEqualTo(1);
+        // the hedge is timed as a duplicate of attempt 0, not as a retry; the primary it beat as cancelled
+        String uri = "/PublicHolidays/{year}/{countryCode}";
+        assertThat(meterRegistry.get("nager.client.requests").tags("uri", uri, "attempt", "0", "hedge", "true", "outcome", "SUCCESS")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("nager.client.requests").tags("uri", uri, "attempt", "0", "hedge", "false", "outcome", "CANCELLED")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("nager.client.requests").tags("attempt", "1").timers()).isEmpty();
+        // 25 warm-up calls, the winning hedge, and the cancelled primary at least as slow as the hedge delay
+        ArgumentCaptor<Long> latencies = ArgumentCaptor.forClass(Long.class);
+        verify(policy, times(27)).record(eq(uri), latencies.capture());
+        assertThat(latencies.getAllValues()).anySatisfy(nanos -> assertThat(nanos).isGreaterThanOrEqualTo(50_000_000L));
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.nager.client;
+
+import com.example.nager.NagerHolidaysApplication;
+import com.example.nager.model.PublicHoliday;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(classes = NagerHolidaysApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NagerDateReactiveClientIT {
+    static WireMockServer wm = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    @Autowired NagerDateReactiveClient client;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired ConfigurableApplicationContext context;
+
+    static {
+        wm.start();
+        WireMock.configureFor("localhost", wm.port());
+    }
+
+    @AfterAll
+    static void stopWireMock(){
+        if (wm != null && wm.isRunning()) wm.stop();
+    }
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry){
+        registry.add("nager.base-url", () -> "http://localhost:" + wm.port());
+    }
+
+    @Test
+    void concurrent_misses_share_a_single_upstream_exchange() {
+        // slow upstream so every subscriber arrives while the first exchange is still in flight
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2030/GB"))
+                .willReturn(okJson("[{\"date\":\"2030-12-25\",\"name\":\"Christmas Day\",\"localName\":\"Christmas Day\"}]")
+                        .withFixedDelay(500)));
+        double originatedBefore = counter("originated");
+        double coalescedBefore = counter("coalesced");
+
+        List<List<PublicHoliday>> results = Flux.range(0, 100)
+                .flatMap(i -> client.getPublicHolidays(2030, "GB"), 100)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(results).hasSize(100).allSatisfy(list -> assertThat(list).hasSize(1));
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/2030/GB")));
+        assertThat(counter("originated") - originatedBefore).isEqualTo(1);
+        assertThat(counter("coalesced") - coalescedBefore).isEqualTo(99);
+    }
+
+    @Test
+    void every_attempt_is_timed_with_outcome_status_and_attempt_tags() {
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2031/FR")).inScenario("flaky").whenScenarioStateIs(STARTED)
+                .willReturn(serverError()).willSetStateTo("recovered"));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2031/FR")).inScenario("flaky").whenScenarioStateIs("recovered")
+                .willReturn(okJson("[]")));
+
+        assertThat(client.getPublicHolidays(2031, "FR").block(Duration.ofSeconds(10))).isEmpty();
+
+        assertThat(meterRegistry.get("nager.client.requests")
+                .tags("outcome", "SERVER_ERROR", "status", "500", "attempt", "0").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("nager.client.requests")
+                .tags("outcome", "SUCCESS", "status", "200", "attempt", "1").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("nager.ratelimiter.calls").tag("result", "permitted").counter().count()).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "publicHolidays").meters()).isNotEmpty();
+    }
+
+    @Test
+    void refetches_revalidate_and_keep_the_same_list_until_content_changes() throws InterruptedException {
+        String christmas = "[{\"date\":\"2032-12-25\",\"name\":\"Christmas Day\",\"localName\":\"Christmas Day\"}]";
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2032/GB")).inScenario("revalidate").whenScenarioStateIs(STARTED)
+                .willReturn(okJson(christmas).withHeader("ETag", "\"v1\"")).willSetStateTo("known"));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2032/GB")).inScenario("revalidate").whenScenarioStateIs("known")
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)).willSetStateTo("no-validators"));
+        // same body without validators: recognised by its content hash
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2032/GB")).inScenario("revalidate").whenScenarioStateIs("no-validators")
+                .willReturn(okJson(christmas)).willSetStateTo("changed"));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2032/GB")).inScenario("revalidate").whenScenarioStateIs("changed")
+                .willReturn(okJson("[]")));
+        // published right after the result is delivered, so possibly after block() returns
+        BlockingQueue<Object> published = new LinkedBlockingQueue<>();
+        context.addApplicationListener(ApplicationListener.<PublicHolidaysChangedEvent>forPayload(published::add));
+        context.addApplicationListener(ApplicationListener.<PublicHolidaysUnchangedEvent>forPayload(published::add));
+
+        List<PublicHoliday> first = client.fetchPublicHolidays(2032, "GB").block(Duration.ofSeconds(10));
+        List<PublicHoliday> notModified = client.fetchPublicHolidays(2032, "GB").block(Duration.ofSeconds(10));
+        List<PublicHoliday> unchanged = client.fetchPublicHolidays(2032, "GB").block(Duration.ofSeconds(10));
+        assertThat(published.poll(5, TimeUnit.SECONDS)).isEqualTo(new PublicHolidaysUnchangedEvent(2032, "GB"));
+        assertThat(published.poll(5, TimeUnit.SECONDS)).isEqualTo(new PublicHolidaysUnchangedEvent(2032, "GB"));
+        List<PublicHoliday> changed = client.fetchPublicHolidays(2032, "GB").block(Duration.ofSeconds(10));
+
+        assertThat(first).hasSize(1);
+        assertThat(notModified).isSameAs(first);
+        assertThat(unchanged).isSameAs(first);
+        assertThat(changed).isEmpty();
+        assertThat(published.poll(5, TimeUnit.SECONDS)).isEqualTo(new PublicHolidaysChangedEvent(2032, "GB"));
+        assertThat(published).isEmpty();
+        assertThat(meterRegistry.get("nager.client.requests").tags("uri", "/PublicHolidays/{year}/{countryCode}", "status", "304")
+                .timer().count()).isEqualTo(1);
+        for (String result : List.of("not_modified", "unchanged", "changed")) {
+            assertThat(meterRegistry.get("nager.client.revalidation").tag("result", result).counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void a_list_nobody_holds_any_more_is_refetched_unconditionally() {
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2036/GB")).willReturn(okJson("[]").withHeader("ETag", "\"v1\"")));
+
+        assertThat(client.fetchPublicHolidays(2036, "GB").block(Duration.ofSeconds(10))).isEmpty();
+        // what the garbage collector does once the cache has dropped the list: the validators only reference it weakly
+        Cache<String, ?> validated = (Cache<String, ?>) ReflectionTestUtils.getField(AopTestUtils.<Object>getTargetObject(client), "validated");
+        ((WeakReference<?>) ReflectionTestUtils.invokeMethod(validated.getIfPresent("2036:GB"), "holidays")).clear();
+        client.fetchPublicHolidays(2036, "GB").block(Duration.ofSeconds(10));
+
+        WireMock.verify(2, getRequestedFor(urlEqualTo("/PublicHolidays/2036/GB")).withoutHeader("If-None-Match"));
+    }
+
+    @Test
+    void unknown_codes_and_upstream_client_errors_are_answered_without_asking_again() throws InterruptedException {
+        wm.stubFor(get(urlEqualTo("/AvailableCountries"))
+                .willReturn(okJson("[{\"countryCode\":\"GB\"},{\"countryCode\":\"FR\"},{\"countryCode\":\"DE\"}]")));
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/1850/DE")).willReturn(aResponse().withStatus(400)));
+        // a lazy load started by an earlier test may still hold the single load slot
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("nager.countries.known").gauge().value() != 3 && System.nanoTime() < until) {
+            client.reloadCountries().block(Duration.ofSeconds(10));
+            Thread.sleep(20);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.fetchPublicHolidays(2033, "XX").block(Duration.ofSeconds(10)))
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode().value()).isEqualTo(404));
+            assertThatThrownBy(() -> client.fetchPublicHolidays(1850, "DE").block(Duration.ofSeconds(10)))
+                    .isInstanceOfSatisfying(WebClientResponseException.class, e -> assertThat(e.getStatusCode().value()).isEqualTo(400));
+        }
+
+        WireMock.verify(0, getRequestedFor(urlEqualTo("/PublicHolidays/2033/XX")));
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/1850/DE")));
+        assertThat(meterRegistry.get("nager.client.rejected").tag("reason", "unknown_country").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("nager.client.rejected").tag("reason", "negative_cache").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("nager.countries.known").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrent_callers_of_one_cached_load_each_wait_within_their_own_deadline() throws Exception {
+        ownDeadlines(2034, () -> Deadline.enforce(client.getPublicHolidays(2034, "GB")));
+    }
+
+    @Test
+    void concurrent_callers_of_one_upstream_fetch_each_wait_within_their_own_deadline() throws Exception {
+        ownDeadlines(2035, () -> client.fetchPublicHolidays(2035, "GB"));
+    }
+
+    // the caller with the short budget subscribes first and gets 504; the shared load goes on for the other one
+    @Test
+    void a_shared_exchange_runs_until_its_latest_callers_deadline_and_is_cancelled_then() throws Exception {
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2038/GB")).willReturn(okJson("[]").withFixedDelay(3000)));
+        double endedBefore = endedUnanswered();
+        long start = System.nanoTime();
+
+        CompletableFuture<List<PublicHoliday>> first = client.getPublicHolidays(2038, "GB")
+                .contextWrite(Deadline.after(Duration.ofMillis(300))::putIn).toFuture();
+        CompletableFuture<List<PublicHoliday>> joined = client.getPublicHolidays(2038, "GB")
+                .contextWrite(Deadline.after(Duration.ofMillis(800))::putIn).toFuture();
+
+        assertThatThrownBy(() -> first.get(10, TimeUnit.SECONDS)).cause().isInstanceOf(ResponseStatusException.class);
+        // the joined caller is still waiting, so the exchange is too: not cut and retried at the first caller's deadline
+        assertThat(endedUnanswered()).isEqualTo(endedBefore);
+        assertThatThrownBy(() -> joined.get(10, TimeUnit.SECONDS)).cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode().value()).isEqualTo(504));
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (endedUnanswered() == endedBefore && System.nanoTime() < until) Thread.sleep(10);
+
+        // ended with the last caller, well before upstream would have answered
+        assertThat(endedUnanswered() - endedBefore).isEqualTo(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(2000));
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/2038/GB")));
+    }
+
+    @Test
+    void a_retry_whose_backoff_does_not_fit_the_deadline_is_not_made() {
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/2039/GB")).willReturn(serverError()));
+
+        // 300 ms backoff before the first retry, more than the deadline leaves
+        assertThatThrownBy(() -> client.getPublicHolidays(2039, "GB")
+                .contextWrite(Deadline.after(Duration.ofMillis(250))::putIn).block(Duration.ofSeconds(10)))
+                .isInstanceOfSatisfying(WebClientResponseException.class, e -> assertThat(e.getStatusCode().value()).isEqualTo(500));
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/2039/GB")));
+
+        assertThatThrownBy(() -> client.getPublicHolidays(2039, "GB").block(Duration.ofSeconds(10)))
+                .isInstanceOf(WebClientResponseException.class);
+        WireMock.verify(1 + 3, getRequestedFor(urlEqualTo("/PublicHolidays/2039/GB")));
+    }
+
+    // attempts that ended without an answer: cancelled, or timed out at the deadline
+    private double endedUnanswered() {
+        return meterRegistry.find("nager.client.requests").tag("status", "NONE").timers().stream()
+                .filter(t -> !"SUCCESS".equals(t.getId().getTag("outcome"))).mapToDouble(t -> t.count()).sum();
+    }
+
+    private void ownDeadlines(int year, Supplier<Mono<List<PublicHoliday>>> load) throws Exception {
+        wm.stubFor(get(urlEqualTo("/PublicHolidays/" + year + "/GB"))
+                .willReturn(okJson("[{\"date\":\"" + year + "-12-25\",\"name\":\"Christmas Day\",\"localName\":\"Christmas Day\"}]")
+                        .withFixedDelay(600)));
+
+        CompletableFuture<List<PublicHoliday>> hurried = load.get().contextWrite(Deadline.after(Duration.ofMillis(200))::putIn).toFuture();
+        CompletableFuture<List<PublicHoliday>> patient = load.get().contextWrite(Deadline.after(Duration.ofSeconds(5))::putIn).toFuture();
+
+        assertThat(patient.get(10, TimeUnit.SECONDS)).hasSize(1);
+        assertThatThrownBy(() -> hurried.get(10, TimeUnit.SECONDS)).cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode().value()).isEqualTo(504));
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/" + year + "/GB")));
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("nager.client.singleflight").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.nager.client;
+
+import com.example.nager.NagerHolidaysApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Offline mode end to end: the JSON import is converted to the binary dataset at startup and every endpoint
+ * is answered from it. The upstream base URL points at a closed port, so any network call would fail.
+ */
+@SpringBootTest(classes = NagerHolidaysApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class OfflineModeIT {
+    @Autowired WebTestClient webClient;
+    @Autowired MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry) throws Exception {
+        Path dir = Files.createTempDirectory("offline-dataset");
+        String json = Paths.get(OfflineModeIT.class.getResource("/offline/holidays.json").toURI()).toString();
+        registry.add("nager.base-url", () -> "http://localhost:1");
+        registry.add("app.offline.enabled", () -> "true");
+        registry.add("app.offline.dataset", () -> dir.resolve("holidays.dataset").toString());
+        registry.add("app.offline.import", () -> json);
+    }
+
+    @Test
+    void endpoints_are_served_from_the_local_dataset() {
+        webClient.get().uri("/api/holidays/last-n/GB?n=2&date=2030-06-01").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].date").isEqualTo("2030-01-01").jsonPath("$[1].date").isEqualTo("2029-12-26");
+        webClient.get().uri("/api/holidays/weekday-count/all?year=2030").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2).jsonPath("$[0].countryCode").isEqualTo("GB").jsonPath("$[0].weekdayHolidayCount").isEqualTo(3);
+        webClient.get().uri("/api/holidays/business-days/GB/add?date=2030-12-24&days=1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.to").isEqualTo("2030-12-27");
+        webClient.get().uri("/api/holidays/last-n/ZZ").exchange().expectStatus().isNotFound();
+
+        assertThat(meterRegistry.get("holiday.offline.entries").gauge().value()).isEqualTo(6);
+        assertThat(meterRegistry.get("holiday.offline.load").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("nager.client.requests").timers()).isEmpty();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.nager.config;
+
+import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.model.PublicHoliday;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Refresh-ahead behaviour of the publicHolidays cache: stale values keep being served while a
+ * background reload is running or failing, until the configured max staleness runs out.
+ */
+@SpringJUnitConfig(CacheConfigTest.TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cache.cache-names=publicHolidays,weekdayCounts",
+        "app.cache.public-holidays.refresh-after-ms=200",
+        "app.cache.public-holidays.max-staleness-ms=1000"
+})
+class CacheConfigTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class TestConfig {
+        @Bean
+        NagerDateReactiveClient client() {
+            return mock(NagerDateReactiveClient.class);
+        }
+    }
+
+    @Autowired CacheManager cacheManager;
+    @Autowired NagerDateReactiveClient client;
+
+    private final List<PublicHoliday> stale = List.of(ph("2030-01-01"));
+    private final List<PublicHoliday> fresh = List.of(ph("2030-01-01"), ph("2030-12-25"));
+
+    private static PublicHoliday ph(String isoDate) {
+        return new PublicHoliday(LocalDate.parse(isoDate), isoDate, isoDate, "GB", true, true, null, null, List.of("Public"));
+    }
+
+    @BeforeEach
+    void reset() {
+        cacheManager.getCache("publicHolidays").clear();
+        clearInvocations(client);
+    }
+
+    @Test
+    void hit_before_refresh_point_does_not_reload() {
+        Cache cache = cacheManager.getCache("publicHolidays");
+        cache.put("2030:GB", stale);
+
+        assertThat(valueOf(cache.retrieve("2030:GB"))).isSameAs(stale);
+        verify(client, never()).fetchPublicHolidays(anyInt(), anyString());
+    }
+
+    @Test
+    void stale_value_is_served_while_reload_is_in_flight_then_replaced() throws Exception {
+        Cache cache = cacheManager.getCache("publicHolidays");
+        when(client.fetchPublicHolidays(2030, "GB")).thenReturn(Mono.just(fresh).delayElement(Duration.ofMillis(200)));
+        cache.put("2030:GB", stale);
+        Thread.sleep(300);
+
+        CompletableFuture<?> hit = cache.retrieve("2030:GB");
+        assertThat(hit).isDone();
+        assertThat(valueOf(hit)).isSameAs(stale);
+
+        verify(client, timeout(1000)).fetchPublicHolidays(2030, "GB");
+        Thread.sleep(400);
+        assertThat(valueOf(cache.retrieve("2030:GB"))).isSameAs(fresh);
+    }
+
+    @Test
+    void failed_reload_keeps_stale_value_until_max_staleness() throws Exception {
+        Cache cache = cacheManager.getCache("publicHolidays");
+        when(client.fetchPublicHolidays(2030, "FR")).thenReturn(Mono.error(new IllegalStateException("upstream down")));
+        cache.put("2030:FR", stale);
+        Thread.sleep(300);
+
+        assertThat(valueOf(cache.retrieve("2030:FR"))).isSameAs(stale);
+        verify(client, timeout(1000)).fetchPublicHolidays(2030, "FR");
+        assertThat(valueOf(cache.retrieve("2030:FR"))).isSameAs(stale);
+
+        Thread.sleep(1200);
+        assertThat(cache.retrieve("2030:FR")).isNull();
+    }
+
+    @Test
+    void public_holidays_are_bounded_by_estimated_bytes() {
+        Cache cache = cacheManager.getCache("publicHolidays");
+        var nativeCache = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+        var eviction = nativeCache.policy().eviction().orElseThrow();
+
+        assertThat(eviction.isWeighted()).isTrue();
+        assertThat(eviction.getMaximum()).isEqualTo(33_554_432L);
+        cache.put("2030:GB", fresh);
+        nativeCache.cleanUp(); // weights are applied when the write buffer drains
+        assertThat(eviction.weightedSize()).hasValue(CacheConfig.ENTRY_OVERHEAD_BYTES + 2L * CacheConfig.HOLIDAY_BYTES);
+    }
+
+    @Test
+    void other_caches_use_the_shared_spec() {
+        Cache cache = cacheManager.getCache("weekdayCounts");
+        cache.put("2030:GB", 3);
+        assertThat(valueOf(cache.retrieve("2030:GB"))).isEqualTo(3);
+        verify(client, never()).fetchPublicHolidays(anyInt(), anyString());
+    }
+
+    private Object valueOf(CompletableFuture<?> future) {
+        Object value = future.join();
+        return value instanceof Cache.ValueWrapper wrapper ? wrapper.get() : value;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.nager.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PublicHolidayTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @Test
+    void decodes_nager_json_into_shared_compact_fields() throws Exception {
+        String json = "[{\"date\":\"2025-01-06\",\"localName\":\"Heilige Drei Könige\",\"name\":\"Epiphany\",\"countryCode\":\"DE\",\"fixed\":true,"
+                + "\"global\":false,\"counties\":[\"DE-BW\",\"DE-BY\"],\"launchYear\":1967,\"types\":[\"Public\",\"Bank\",\"Future\"],\"extra\":1},"
+                + "{\"date\":\"2026-01-06\",\"localName\":\"Heilige Drei Könige\",\"name\":\"Epiphany\",\"countryCode\":\"DE\",\"fixed\":true,"
+                + "\"global\":false,\"counties\":[\"DE-BW\",\"DE-BY\"],\"launchYear\":null,\"types\":[\"Public\"]}]";
+
+        List<PublicHoliday> holidays = mapper.readValue(json, new TypeReference<>() { });
+        PublicHoliday a = holidays.get(0), b = holidays.get(1);
+
+        assertThat(a.getDate()).isEqualTo(LocalDate.of(2025, 1, 6));
+        assertThat(a.getEpochDay()).isEqualTo((int) LocalDate.of(2025, 1, 6).toEpochDay());
+        assertThat(a.getTypes()).containsExactly("Public", "Bank"); // unknown types are dropped
+        assertThat(a.getLaunchYear()).isEqualTo(1967);
+        assertThat(b.getLaunchYear()).isNull();
+        assertThat(b.getName()).isSameAs(a.getName());
+        assertThat(b.getLocalName()).isSameAs(a.getLocalName());
+        assertThat(b.getCounties()).isSameAs(a.getCounties()).containsExactly("DE-BW", "DE-BY");
+
+        assertThat(mapper.writeValueAsString(a)).contains("\"date\":[2025,1,6]", "\"types\":[\"Public\",\"Bank\"]")
+                .doesNotContain("epochDay", "typeMask");
+    }
+}
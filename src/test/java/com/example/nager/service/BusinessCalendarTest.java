@@ -0,0 +1,73 @@
+package com.example.nager.service;
+
+import com.example.nager.model.PublicHoliday;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BusinessCalendarTest {
+
+    private final HolidayIndex index = new HolidayIndex();
+    private final Set<DayOfWeek> satSun = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    private PublicHoliday ph(String isoDate) {
+        return new PublicHoliday(LocalDate.parse(isoDate), isoDate, isoDate, null, false, false, null, null, null);
+    }
+
+    // 2021-12-24 Fri, 2021-12-27 Mon, 2021-12-28 Tue, 2022-01-03 Mon
+    private final List<PublicHoliday> y2021 = List.of(ph("2021-01-01"), ph("2021-12-27"), ph("2021-12-28"));
+    private final List<PublicHoliday> y2022 = List.of(ph("2022-01-03"), ph("2022-12-26"));
+    private final BusinessCalendar calendar = BusinessCalendar.of(HolidayIndex.dayMask(satSun),
+            index.of(2021, "GB", y2021), index.of(2022, "GB", y2022));
+
+    @Test
+    void check_and_count_skip_weekends_and_holidays() {
+        assertThat(calendar.isBusinessDay(LocalDate.of(2021, 12, 24))).isTrue();
+        assertThat(calendar.isBusinessDay(LocalDate.of(2021, 12, 25))).isFalse();
+        assertThat(calendar.isBusinessDay(LocalDate.of(2021, 12, 27))).isFalse();
+
+        // (Fri 24 Dec, Tue 4 Jan]: Wed 29, Thu 30, Fri 31, Tue 4
+        assertThat(calendar.count(LocalDate.of(2021, 12, 24), LocalDate.of(2022, 1, 4))).isEqualTo(4);
+        assertThat(calendar.count(LocalDate.of(2022, 1, 4), LocalDate.of(2021, 12, 24))).isEqualTo(-4);
+    }
+
+    @Test
+    void add_lands_on_business_days_across_the_year_boundary() {
+        assertThat(calendar.add(LocalDate.of(2021, 12, 24), 1)).isEqualTo(LocalDate.of(2021, 12, 29));
+        assertThat(calendar.add(LocalDate.of(2021, 12, 24), 4)).isEqualTo(LocalDate.of(2022, 1, 4));
+        assertThat(calendar.add(LocalDate.of(2022, 1, 4), -4)).isEqualTo(LocalDate.of(2021, 12, 24));
+        assertThat(calendar.add(LocalDate.of(2021, 12, 25), -1)).isEqualTo(LocalDate.of(2021, 12, 24));
+        assertThat(calendar.add(LocalDate.of(2021, 12, 25), 0)).isEqualTo(LocalDate.of(2021, 12, 25));
+        assertThat(calendar.add(LocalDate.of(2022, 12, 30), 1)).isNull();
+        assertThat(calendar.add(LocalDate.of(2021, 1, 4), -1)).isNull();
+    }
+
+    @Test
+    void matches_a_day_by_day_walk() {
+        Random random = new Random(7);
+        for (int k = 0; k < 500; k++) {
+            LocalDate date = LocalDate.of(2021, 1, 1).plusDays(random.nextInt(730));
+            int n = random.nextInt(81) - 40;
+            LocalDate expected = date;
+            for (int left = Math.abs(n); left > 0 && expected != null; ) {
+                expected = expected.plusDays(Integer.signum(n));
+                if (expected.getYear() < 2021 || expected.getYear() > 2022) expected = null;
+                else if (business(expected)) left--;
+            }
+            assertThat(calendar.add(date, n)).as("%s %+d", date, n).isEqualTo(expected);
+            if (expected != null && n > 0) assertThat(calendar.count(date, expected)).isEqualTo(n);
+        }
+    }
+
+    private boolean business(LocalDate d) {
+        return !satSun.contains(d.getDayOfWeek())
+                && y2021.stream().noneMatch(h -> h.getDate().equals(d)) && y2022.stream().noneMatch(h -> h.getDate().equals(d));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.nager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DependencyTrackerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DependencyTracker tracker = new DependencyTracker(registry);
+    private final Cache counts = new ConcurrentMapCache("weekdayCounts");
+    private final Cache matrices = new ConcurrentMapCache("overlapMatrices");
+
+    @Test
+    void a_changed_source_evicts_only_entries_built_from_it() {
+        tracker.put(counts, "2030:GB", 8, List.of("2030:GB"));
+        tracker.put(counts, "2030:FR", 11, List.of("2030:FR"));
+        tracker.put(matrices, "2030:[GB, FR]", "gb-fr", List.of("2030:GB", "2030:FR"));
+        tracker.put(matrices, "2030:[FR, DE]", "fr-de", List.of("2030:FR", "2030:DE"));
+
+        assertThat(tracker.invalidate("2030:GB")).isEqualTo(2);
+
+        assertThat(counts.get("2030:GB")).isNull();
+        assertThat(matrices.get("2030:[GB, FR]")).isNull();
+        assertThat(counts.get("2030:FR").get()).isEqualTo(11);
+        assertThat(matrices.get("2030:[FR, DE]").get()).isEqualTo("fr-de");
+        assertThat(tracker.invalidate("2030:GB")).isZero();
+        assertThat(count("overlapMatrices", "computed")).isEqualTo(2);
+        assertThat(count("overlapMatrices", "invalidated")).isEqualTo(1);
+    }
+
+    @Test
+    void an_unchanged_source_re_puts_its_dependents_and_forgets_evicted_ones() {
+        tracker.put(counts, "2030:FR", 11, List.of("2030:FR"));
+        tracker.put(matrices, "2030:[GB, FR]", "gb-fr", List.of("2030:GB", "2030:FR"));
+        matrices.evict("2030:[GB, FR]"); // dropped by the cache itself
+
+        assertThat(tracker.extend("2030:FR")).isEqualTo(1);
+
+        assertThat(counts.get("2030:FR").get()).isEqualTo(11);
+        assertThat(tracker.dependents("2030:FR")).isEqualTo(1);
+        assertThat(count("weekdayCounts", "extended")).isEqualTo(1);
+    }
+
+    @Test
+    void registrations_of_entries_the_cache_dropped_are_swept_as_they_accumulate() {
+        Cache bounded = new CaffeineCache("overlapMatrices", Caffeine.newBuilder().maximumSize(10).executor(Runnable::run).build());
+        for (int i = 0; i < 5000; i++) {
+            tracker.put(bounded, "2030:[GB, X" + i + "]", "m" + i, List.of("2030:GB", "2030:X" + i));
+        }
+
+        assertThat(tracker.dependents("2030:X0")).isZero(); // swept along the way
+        assertThat(tracker.dependents("2030:GB")).isLessThan(1024);
+        assertThat(tracker.sweep()).isLessThanOrEqualTo(20);
+        assertThat(tracker.dependents("2030:GB")).isLessThanOrEqualTo(10);
+    }
+
+    private double count(String cache, String action) {
+        return registry.get("holiday.derived.entries").tags("cache", cache, "action", action).counter().count();
+    }
+}
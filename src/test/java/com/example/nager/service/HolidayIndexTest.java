@@ -0,0 +1,82 @@
+package com.example.nager.service;
+
+import com.example.nager.model.CommonHoliday;
+import com.example.nager.model.PublicHoliday;
+import com.example.nager.model.SharedHoliday;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HolidayIndexTest {
+
+    private final HolidayIndex index = new HolidayIndex();
+    private final int satSun = HolidayIndex.dayMask(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+
+    private PublicHoliday ph(String isoDate, String name) {
+        return new PublicHoliday(LocalDate.parse(isoDate), name + " (local)", name, null, false, false, null, null, null);
+    }
+
+    @Test
+    void weekend_mask_covers_every_weekend_day_of_a_leap_year() {
+        long[] mask = index.weekendMask(2024, satSun);
+        int count = 0;
+        for (long w : mask) count += Long.bitCount(w);
+        assertThat(count).isEqualTo(104);
+        // 2024-12-31 is a Tuesday, 2024-12-29 a Sunday
+        assertThat(mask[365 >>> 6] & (1L << 365)).isZero();
+        assertThat(mask[363 >>> 6] & (1L << 363)).isNotZero();
+    }
+
+    @Test
+    void weekday_count_ignores_weekend_duplicate_and_out_of_year_dates() {
+        HolidayIndex.CountryYear entry = index.of(2021, "GB", List.of(
+                ph("2021-07-02", "Fri"), ph("2021-07-03", "Sat"), ph("2021-07-05", "Mon"),
+                ph("2021-07-05", "Mon again"), ph("2022-01-03", "Next year")));
+
+        assertThat(HolidayIndex.weekdayCount(entry, index.weekendMask(2021, satSun))).isEqualTo(2);
+    }
+
+    @Test
+    void common_returns_intersection_in_date_order_with_first_local_name_per_country() {
+        HolidayIndex.CountryYear a = index.of(2021, "GB", List.of(ph("2021-12-26", "Boxing"), ph("2021-12-25", "Xmas"), ph("2021-01-01", "NY")));
+        HolidayIndex.CountryYear b = index.of(2021, "FR", List.of(ph("2021-01-01", "Jour de l'an"), ph("2021-12-25", "Noel"), ph("2021-12-25", "Noel bis")));
+
+        List<CommonHoliday> common = HolidayIndex.common(a, b);
+
+        assertThat(common).extracting(CommonHoliday::getDate)
+                .containsExactly(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 25));
+        assertThat(common).extracting(CommonHoliday::getLocalNameA).containsExactly("NY (local)", "Xmas (local)");
+        assertThat(common).extracting(CommonHoliday::getLocalNameB).containsExactly("Jour de l'an (local)", "Noel (local)");
+    }
+
+    @Test
+    void n_way_common_keeps_only_dates_shared_by_every_country() {
+        HolidayIndex.CountryYear gb = index.of(2021, "GB", List.of(ph("2021-01-01", "NY"), ph("2021-12-25", "Xmas"), ph("2021-12-26", "Boxing")));
+        HolidayIndex.CountryYear fr = index.of(2021, "FR", List.of(ph("2021-01-01", "Jour de l'an"), ph("2021-12-25", "Noel")));
+        HolidayIndex.CountryYear de = index.of(2021, "DE", List.of(ph("2021-12-25", "Weihnachten"), ph("2021-12-26", "Zweiter")));
+
+        List<SharedHoliday> shared = HolidayIndex.common(List.of("GB", "FR", "DE"), List.of(gb, fr, de));
+
+        assertThat(shared).extracting(SharedHoliday::getDate).containsExactly(LocalDate.of(2021, 12, 25));
+        assertThat(shared.get(0).getLocalNames()).containsExactly(
+                entry("GB", "Xmas (local)"), entry("FR", "Noel (local)"), entry("DE", "Weihnachten (local)"));
+        assertThat(HolidayIndex.overlap(gb, de)).isEqualTo(2);
+        assertThat(HolidayIndex.overlap(fr, de)).isEqualTo(1);
+        assertThat(HolidayIndex.common(List.of(), List.of())).isEmpty();
+    }
+
+    @Test
+    void entry_is_reused_for_the_same_source_list_and_rebuilt_for_a_new_one() {
+        List<PublicHoliday> source = new ArrayList<>(List.of(ph("2021-01-01", "NY")));
+        HolidayIndex.CountryYear first = index.of(2021, "DE", source);
+
+        assertThat(index.of(2021, "DE", source)).isSameAs(first);
+        assertThat(index.of(2021, "DE", List.of(ph("2021-01-01", "NY")))).isNotSameAs(first);
+    }
+}
@@ -1,17 +1,29 @@
 package com.example.nager.service;
 
 import com.example.nager.client.NagerDateReactiveClient;
+import com.example.nager.client.PublicHolidaysChangedEvent;
+import com.example.nager.client.PublicHolidaysUnchangedEvent;
 import com.example.nager.config.WeekendProperties;
+import com.example.nager.model.BatchQuery;
+import com.example.nager.model.BatchResult;
+import com.example.nager.model.CountryHolidayCount;
+import com.example.nager.model.OverlapMatrix;
 import com.example.nager.model.PublicHoliday;
+import com.example.nager.model.SharedHoliday;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.aop.framework.Advised;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
@@ -19,6 +31,7 @@ import java.time.DayOfWeek;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 import static org.assertj.core.api.Assertions.*;
@@ -46,12 +59,17 @@ public class HolidayServiceCachingIT {
 
         @Bean
         CacheManager cacheManager() {
-            return new ConcurrentMapCacheManager("lastThree", "weekdayCounts", "commonDates", "publicHolidays");
+            return new ConcurrentMapCacheManager("timelines", "weekdayCounts", "commonDates", "publicHolidays", "availableCountries", "overlapMatrices", "businessCalendars");
         }
 
         @Bean
-        HolidayService holidayService(NagerDateReactiveClient client, WeekendProperties wp) {
-            return new HolidayService(client, wp);
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        HolidayService holidayService(NagerDateReactiveClient client, WeekendProperties wp, CacheManager cacheManager, MeterRegistry meterRegistry) {
+            return new HolidayService(client, wp, cacheManager, meterRegistry);
         }
     }
 
@@ -61,12 +79,17 @@ public class HolidayServiceCachingIT {
     @org.springframework.beans.factory.annotation.Autowired
     NagerDateReactiveClient client;
 
+    @org.springframework.beans.factory.annotation.Autowired
+    CacheManager cacheManager;
+
+    @org.springframework.beans.factory.annotation.Autowired
+    ApplicationEventPublisher events;
+
+    @org.springframework.beans.factory.annotation.Autowired
+    MeterRegistry meterRegistry;
+
     private PublicHoliday ph(String isoDate, String name) {
-        PublicHoliday h = new PublicHoliday();
-        h.setDate(LocalDate.parse(isoDate));
-        h.setName(name);
-        h.setLocalName(name);
-        return h;
+        return new PublicHoliday(LocalDate.parse(isoDate), name, name, null, false, false, null, null, null);
     }
 
     private NagerDateReactiveClient targetMock() {
@@ -123,4 +146,138 @@ public class HolidayServiceCachingIT {
         verify(mock, times(1)).getPublicHolidays(2021, "GB");
         verify(mock, times(1)).getPublicHolidays(2021, "FR");
     }
+
+    @Test
+    void weekdayCounts_are_cached_per_country_so_lists_share_entries() {
+        NagerDateReactiveClient mock = targetMock();
+        when(mock.getPublicHolidays(2022, "GB")).thenReturn(Mono.just(List.of(ph("2022-07-04", "Mon"))));
+        when(mock.getPublicHolidays(2022, "FR")).thenReturn(Mono.just(List.of(ph("2022-07-04", "Lun"), ph("2022-07-05", "Mar"))));
+        when(mock.getPublicHolidays(2022, "DE")).thenReturn(Mono.just(List.of(ph("2022-07-09", "Sam"))));
+
+        service.countWeekdayHolidays(2022, List.of("GB", "FR")).block();
+        List<CountryHolidayCount> reordered = service.countWeekdayHolidays(2022, List.of("FR", "DE", "GB", "FR")).block();
+
+        assertThat(reordered).extracting(CountryHolidayCount::getCountryCode).containsExactly("FR", "GB", "DE");
+        assertThat(reordered).extracting(CountryHolidayCount::getWeekdayHolidayCount).containsExactly(2, 1, 0);
+        assertThat(cacheManager.getCache("weekdayCounts").get("2022:FR", Integer.class)).isEqualTo(2);
+        verify(mock, times(1)).getPublicHolidays(2022, "GB");
+        verify(mock, times(1)).getPublicHolidays(2022, "FR");
+        verify(mock, times(1)).getPublicHolidays(2022, "DE");
+    }
+
+    @Test
+    void any_order_of_the_same_countries_shares_one_matrix_and_shared_dates_entry() {
+        NagerDateReactiveClient mock = targetMock();
+        when(mock.getPublicHolidays(2011, "GB")).thenReturn(Mono.just(List.of(ph("2011-12-25", "Christmas"), ph("2011-12-26", "Boxing Day"))));
+        when(mock.getPublicHolidays(2011, "FR")).thenReturn(Mono.just(List.of(ph("2011-12-25", "Noel"))));
+
+        OverlapMatrix first = service.overlapMatrix(2011, List.of("GB", "FR")).block();
+        OverlapMatrix reordered = service.overlapMatrix(2011, List.of("FR", "GB", "FR")).block();
+        service.sharedDates(2011, List.of("GB", "FR")).block();
+        List<SharedHoliday> shared = service.sharedDates(2011, List.of("FR", "GB")).block();
+
+        assertThat(first.getCountries()).containsExactly("GB", "FR");
+        assertThat(first.getShared()).isDeepEqualTo(new int[][] {{2, 1}, {1, 1}});
+        assertThat(reordered.getCountries()).containsExactly("FR", "GB");
+        assertThat(reordered.getShared()).isDeepEqualTo(new int[][] {{1, 1}, {1, 2}});
+        assertThat(shared).singleElement().satisfies(h -> assertThat(h.getLocalNames()).containsExactly(
+                Map.entry("FR", "Noel"), Map.entry("GB", "Christmas")));
+        assertThat(cacheManager.getCache("overlapMatrices").get("2011:[FR, GB]")).isNotNull();
+        verify(mock, times(1)).getPublicHolidays(2011, "GB");
+        verify(mock, times(1)).getPublicHolidays(2011, "FR");
+    }
+
+    @Test
+    void changed_upstream_content_invalidates_derived_entries_of_that_country_year() {
+        NagerDateReactiveClient mock = targetMock();
+        when(mock.getPublicHolidays(2023, "GB")).thenReturn(Mono.just(List.of(ph("2023-07-04", "Tue"))))
+                .thenReturn(Mono.just(List.of(ph("2023-07-04", "Tue"), ph("2023-07-05", "Wed"))));
+        when(mock.getPublicHolidays(2023, "FR")).thenReturn(Mono.just(List.of(ph("2023-07-04", "Mar"))));
+
+        service.countWeekdayHolidays(2023, List.of("GB", "FR")).block();
+        // what a refresh that found new content does: replace the publicHolidays entry, then announce it
+        cacheManager.getCache("publicHolidays").evict("2023:GB");
+        events.publishEvent(new PublicHolidaysChangedEvent(2023, "GB"));
+        List<CountryHolidayCount> after = service.countWeekdayHolidays(2023, List.of("GB", "FR")).block();
+
+        assertThat(after).extracting(CountryHolidayCount::getWeekdayHolidayCount).containsExactly(2, 1);
+        verify(mock, times(2)).getPublicHolidays(2023, "GB");
+        verify(mock, times(1)).getPublicHolidays(2023, "FR");
+    }
+
+    @Test
+    void a_change_recomputes_only_the_derived_entries_that_used_it() {
+        NagerDateReactiveClient mock = targetMock();
+        when(mock.getPublicHolidays(2024, "GB")).thenReturn(Mono.just(List.of(ph("2024-12-25", "Christmas"))));
+        when(mock.getPublicHolidays(2024, "FR")).thenReturn(Mono.just(List.of(ph("2024-12-25", "Noel"))));
+        when(mock.getPublicHolidays(2024, "DE")).thenReturn(Mono.just(List.of(ph("2024-12-25", "Weihnachten"))));
+
+        service.commonDates(2024, "GB", "FR").block();
+        service.commonDates(2024, "FR", "DE").block();
+        service.overlapMatrix(2024, List.of("GB", "FR", "DE")).block();
+        events.publishEvent(new PublicHolidaysUnchangedEvent(2024, "FR"));
+        events.publishEvent(new PublicHolidaysChangedEvent(2024, "GB"));
+
+        assertThat(cacheManager.getCache("commonDates").get("2024:GB:FR")).isNull();
+        assertThat(cacheManager.getCache("commonDates").get("2024:FR:DE")).isNotNull();
+        assertThat(cacheManager.getCache("overlapMatrices").get("2024:[DE, FR, GB]")).isNull();
+        assertThat(meterRegistry.get("holiday.derived.entries").tags("cache", "commonDates", "action", "extended").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("holiday.derived.entries").tags("cache", "commonDates", "action", "invalidated").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("holiday.derived.entries").tags("cache", "overlapMatrices", "action", "invalidated").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void a_batch_fetches_each_country_year_once_and_answers_in_order() {
+        NagerDateReactiveClient mock = targetMock();
+        when(mock.getPublicHolidays(2018, "GB")).thenReturn(Mono.just(List.of(ph("2018-12-25", "Christmas"))));
+        when(mock.getPublicHolidays(2019, "GB")).thenReturn(Mono.just(List.of(ph("2019-12-25", "Christmas"))));
+        when(mock.getPublicHolidays(2019, "FR")).thenReturn(Mono.just(List.of(ph("2019-12-25", "Noel"))));
+        when(mock.getPublicHolidays(2019, "DE")).thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unsupported country code")));
+
+        List<BatchResult> results = service.batch(List.of(
+                query("last-3", q -> q.setCountryCode("gb")),
+                query("weekday-count", q -> { q.setYear(2019); q.setCountries(List.of("GB", "FR")); }),
+                query("common-dates", q -> { q.setYear(2019); q.setCountryA("GB"); q.setCountryB("FR"); }),
+                query("common-dates", q -> { q.setYear(2019); q.setCountryA("GB"); q.setCountryB("DE"); }),
+                query("next-n", q -> q.setCountryCode("G1")),
+                query("easter", q -> { })), LocalDate.of(2019, 12, 31)).block();
+
+        assertThat(results).extracting(BatchResult::getType)
+                .containsExactly("last-3", "weekday-count", "common-dates", "common-dates", "next-n", "easter");
+        assertThat(results).extracting(BatchResult::getStatus).containsExactly(null, null, null, 404, 400, 400);
+        assertThat((List<?>) results.get(0).getResult()).hasSize(2);
+        assertThat((List<?>) results.get(2).getResult()).hasSize(1);
+        verify(mock, times(1)).getPublicHolidays(2018, "GB");
+        verify(mock, times(1)).getPublicHolidays(2019, "GB");
+        verify(mock, times(1)).getPublicHolidays(2019, "FR");
+        verify(mock, times(1)).getPublicHolidays(2019, "DE");
+    }
+
+    @Test
+    void a_batch_prefetches_the_years_a_last_n_walk_reaches() {
+        NagerDateReactiveClient mock = targetMock();
+        when(mock.getPublicHolidays(2045, "NL")).thenReturn(Mono.just(List.of(ph("2045-04-27", "Koningsdag"))));
+        when(mock.getPublicHolidays(2044, "NL")).thenReturn(Mono.just(List.of(ph("2044-04-27", "Koningsdag"))));
+        when(mock.getPublicHolidays(2043, "NL")).thenReturn(Mono.just(List.of(ph("2043-04-27", "Koningsdag"))));
+        when(mock.getPublicHolidays(2042, "NL")).thenReturn(Mono.just(List.of(ph("2042-04-27", "Koningsdag"))));
+        when(mock.getPublicHolidays(2041, "NL")).thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "No data")));
+        when(mock.getPublicHolidays(2040, "NL")).thenReturn(Mono.just(List.of()));
+
+        List<BatchResult> results = service.batch(List.of(
+                query("last-n", q -> { q.setCountryCode("NL"); q.setN(5); }),
+                query("last-n", q -> { q.setCountryCode("NL"); q.setN(2); })), LocalDate.of(2045, 12, 31)).block();
+
+        assertThat(results).extracting(BatchResult::getStatus).containsExactly(null, null);
+        assertThat((List<?>) results.get(0).getResult()).hasSize(4);
+        assertThat((List<?>) results.get(1).getResult()).hasSize(2);
+        for (int year = 2040; year <= 2045; year++) verify(mock, times(1)).getPublicHolidays(year, "NL");
+        verify(mock, never()).getPublicHolidays(2039, "NL");
+    }
+
+    private static BatchQuery query(String type, Consumer<BatchQuery> fields) {
+        BatchQuery q = new BatchQuery();
+        q.setType(type);
+        fields.accept(q);
+        return q;
+    }
 }
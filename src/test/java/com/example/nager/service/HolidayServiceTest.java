@@ -5,9 +5,13 @@ import com.example.nager.config.WeekendProperties;
 import com.example.nager.model.CommonHoliday;
 import com.example.nager.model.CountryHolidayCount;
 import com.example.nager.model.HolidaySummary;
+import com.example.nager.model.OverlapMatrix;
 import com.example.nager.model.PublicHoliday;
+import com.example.nager.model.SharedHoliday;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
@@ -15,6 +19,7 @@ import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -56,7 +61,7 @@ class HolidayServiceTest {
 
         @Bean
         HolidayService holidayService(NagerDateReactiveClient client, WeekendProperties wp) {
-            return new HolidayService(client, wp);
+            return new HolidayService(client, wp, new NoOpCacheManager(), new SimpleMeterRegistry());
         }
     }
 
@@ -77,11 +82,7 @@ class HolidayServiceTest {
     // ---------------------------
 
     private PublicHoliday ph(String isoDate, String name, String localName) {
-        PublicHoliday h = new PublicHoliday();
-        h.setDate(LocalDate.parse(isoDate));
-        h.setName(name);
-        h.setLocalName(localName);
-        return h;
+        return new PublicHoliday(LocalDate.parse(isoDate), localName, name, null, false, false, null, null, null);
     }
 
     private WebClientResponseException notFound() {
@@ -165,6 +166,53 @@ class HolidayServiceTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void nextN_reads_current_and_next_year_after_the_reference_date() {
+        when(client.getPublicHolidays(2021, "GB")).thenReturn(Mono.just(List.of(
+                ph("2021-12-25", "Christmas Day", "Christmas Day"), ph("2021-12-27", "Christmas (substitute)", "Christmas (substitute)"))));
+        when(client.getPublicHolidays(2022, "GB")).thenReturn(Mono.just(List.of(
+                ph("2022-01-03", "New Year (substitute)", "New Year (substitute)"))));
+
+        List<HolidaySummary> next = service.getNextHolidays("GB", LocalDate.of(2021, 12, 25), 5).block();
+
+        assertThat(next).extracting(HolidaySummary::getDate)
+                .containsExactly(LocalDate.of(2021, 12, 27), LocalDate.of(2022, 1, 3));
+        verify(client, never()).getPublicHolidays(2020, "GB");
+    }
+
+    @Test
+    void lastN_and_nextN_look_further_out_until_n_holidays_are_found() {
+        when(client.getPublicHolidays(2021, "NZ")).thenReturn(Mono.just(List.of(ph("2021-02-06", "Waitangi Day", "Waitangi Day"))));
+        when(client.getPublicHolidays(2019, "NZ")).thenReturn(Mono.just(List.of(ph("2019-02-06", "Waitangi Day", "Waitangi Day"))));
+        when(client.getPublicHolidays(2017, "NZ")).thenReturn(Mono.just(List.of(
+                ph("2017-02-06", "Waitangi Day", "Waitangi Day"), ph("2017-04-25", "Anzac Day", "Anzac Day"))));
+        when(client.getPublicHolidays(2024, "NZ")).thenReturn(Mono.just(List.of(ph("2024-02-06", "Waitangi Day", "Waitangi Day"))));
+        for (int year : List.of(2016, 2018, 2020, 2022, 2023, 2025, 2026)) {
+            when(client.getPublicHolidays(year, "NZ")).thenReturn(Mono.just(List.of()));
+        }
+
+        assertThat(service.getLastHolidays("NZ", LocalDate.of(2021, 6, 1), 3).block()).extracting(HolidaySummary::getDate)
+                .containsExactly(LocalDate.of(2021, 2, 6), LocalDate.of(2019, 2, 6), LocalDate.of(2017, 4, 25));
+        assertThat(service.getNextHolidays("NZ", LocalDate.of(2021, 1, 1), 2).block()).extracting(HolidaySummary::getDate)
+                .containsExactly(LocalDate.of(2021, 2, 6), LocalDate.of(2024, 2, 6));
+        // stops at the first two-year span without holidays
+        assertThat(service.getNextHolidays("NZ", LocalDate.of(2021, 1, 1), 5).block()).hasSize(2);
+        verify(client, never()).getPublicHolidays(2015, "NZ");
+        verify(client, never()).getPublicHolidays(2027, "NZ");
+    }
+
+    @Test
+    void lastN_answers_with_what_was_found_when_an_older_year_cannot_be_read() {
+        when(client.getPublicHolidays(2031, "IE")).thenReturn(Mono.just(List.of(ph("2031-03-17", "St Patrick's Day", "Lá Fhéile Pádraig"))));
+        when(client.getPublicHolidays(2030, "IE")).thenReturn(Mono.just(List.of(ph("2030-03-17", "St Patrick's Day", "Lá Fhéile Pádraig"))));
+        when(client.getPublicHolidays(2029, "IE")).thenReturn(Mono.error(WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, null, StandardCharsets.UTF_8)));
+        when(client.getPublicHolidays(2028, "IE")).thenReturn(Mono.just(List.of(ph("2028-03-17", "St Patrick's Day", "Lá Fhéile Pádraig"))));
+
+        assertThat(service.getLastHolidays("IE", LocalDate.of(2031, 6, 1), 5).block()).extracting(HolidaySummary::getDate)
+                .containsExactly(LocalDate.of(2031, 3, 17), LocalDate.of(2030, 3, 17));
+        verify(client, never()).getPublicHolidays(2027, "IE");
+    }
+
     // =====================================================================================
     // getLastThreeHolidays(...) : Negative case
     // =====================================================================================
@@ -255,6 +303,20 @@ class HolidayServiceTest {
         verify(client, times(1)).getPublicHolidays(2021, "FR");
     }
 
+    @Test
+    void weekdayStream_emits_each_country_as_soon_as_it_arrives() {
+        when(client.getPublicHolidays(2021, "DE")).thenReturn(Mono.just(List.of(
+                ph("2021-01-01", "Neujahr", "Neujahr"))).delayElement(Duration.ofMillis(300)));
+        when(client.getPublicHolidays(2021, "FR")).thenReturn(Mono.just(List.of(
+                ph("2021-01-01", "Jour de l’an", "Jour de l’an"), ph("2021-07-14", "Fête nationale", "Fête nationale"))));
+
+        List<CountryHolidayCount> counts = service.streamWeekdayHolidays(2021, List.of("DE", "FR")).collectList().block();
+
+        // arrival order, not ranking order: the slow DE response comes last
+        assertThat(counts).extracting(CountryHolidayCount::getCountryCode).containsExactly("FR", "DE");
+        assertThat(counts).extracting(CountryHolidayCount::getWeekdayHolidayCount).containsExactly(2, 1);
+    }
+
     // =====================================================================================
     // countWeekdayHolidays(...) : Negative case
     // =====================================================================================
@@ -346,6 +408,62 @@ class HolidayServiceTest {
         verify(client, times(1)).getPublicHolidays(2021, "YU");
     }
 
+    // =====================================================================================
+    // sharedDates(...) / overlapMatrix(...)
+    // =====================================================================================
+
+    @Test
+    void overlapMatrix_is_symmetric_and_fetches_each_distinct_country_once() {
+        when(client.getPublicHolidays(2021, "GB")).thenReturn(Mono.just(List.of(
+                ph("2021-01-01", "New Year", "New Year"), ph("2021-12-25", "Christmas", "Christmas"))));
+        when(client.getPublicHolidays(2021, "FR")).thenReturn(Mono.just(List.of(
+                ph("2021-01-01", "Jour de l’an", "Jour de l’an"), ph("2021-07-14", "Fête nationale", "Fête nationale"),
+                ph("2021-12-25", "Noël", "Noël"))));
+        when(client.getPublicHolidays(2021, "JP")).thenReturn(Mono.just(List.of(
+                ph("2021-01-01", "Ganjitsu", "元日"))));
+
+        OverlapMatrix matrix = service.overlapMatrix(2021, List.of("GB", "FR", "GB", "JP")).block();
+
+        assertThat(matrix.getCountries()).containsExactly("GB", "FR", "JP");
+        assertThat(matrix.getShared()).isDeepEqualTo(new int[][] {{2, 2, 1}, {2, 3, 1}, {1, 1, 1}});
+        assertThat(service.sharedDates(2021, List.of("FR", "GB", "JP", "FR")).block())
+                .extracting(SharedHoliday::getDate).containsExactly(LocalDate.of(2021, 1, 1));
+
+        verify(client, times(2)).getPublicHolidays(2021, "GB"); // once per call, never per duplicate
+        verify(client, times(2)).getPublicHolidays(2021, "FR");
+    }
+
+    // =====================================================================================
+    // business days
+    // =====================================================================================
+
+    @Test
+    void businessDays_use_weekend_override_and_fetch_the_aligned_year_block() {
+        when(client.getPublicHolidays(anyInt(), eq("AE"))).thenReturn(Mono.just(List.of()));
+        when(client.getPublicHolidays(2021, "AE")).thenReturn(Mono.just(List.of(ph("2021-12-02", "National Day", "National Day"))));
+
+        // AE weekend is Friday & Saturday: Thu 2 Dec is a holiday, Fri 3 and Sat 4 are weekend days
+        assertThat(service.isBusinessDay("AE", LocalDate.of(2021, 12, 5)).block()).isTrue();
+        assertThat(service.addBusinessDays("AE", LocalDate.of(2021, 12, 1), 1).block()).isEqualTo(LocalDate.of(2021, 12, 5));
+        assertThat(service.countBusinessDays("AE", LocalDate.of(2021, 11, 30), LocalDate.of(2021, 12, 6)).block()).isEqualTo(3);
+
+        for (int year = 2020; year <= 2023; year++) verify(client, times(3)).getPublicHolidays(year, "AE");
+        verify(client, never()).getPublicHolidays(2024, "AE");
+    }
+
+    @Test
+    void businessDays_fail_only_when_a_queried_year_is_missing_from_the_block() {
+        when(client.getPublicHolidays(anyInt(), eq("SG"))).thenReturn(Mono.just(List.of()));
+        when(client.getPublicHolidays(2033, "SG")).thenReturn(Mono.error(
+                WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, null, StandardCharsets.UTF_8)));
+
+        // 2033 is missing from the 2032-2035 block, but 2034 alone still answers
+        assertThat(service.isBusinessDay("SG", LocalDate.of(2034, 1, 2)).block()).isTrue();
+        assertThat(service.countBusinessDays("SG", LocalDate.of(2034, 1, 1), LocalDate.of(2035, 1, 1)).block()).isEqualTo(261);
+        assertThatThrownBy(() -> service.isBusinessDay("SG", LocalDate.of(2033, 1, 3)).block())
+                .isInstanceOf(WebClientResponseException.NotFound.class);
+    }
+
     // =====================================================================================
     // Caching behavior (via @Cacheable)
     // =====================================================================================
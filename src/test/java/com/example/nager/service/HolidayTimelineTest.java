@@ -0,0 +1,44 @@
+package com.example.nager.service;
+
+import com.example.nager.model.HolidaySummary;
+import com.example.nager.model.PublicHoliday;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HolidayTimelineTest {
+
+    private final HolidayIndex index = new HolidayIndex();
+
+    private PublicHoliday ph(String isoDate, String name) {
+        return new PublicHoliday(LocalDate.parse(isoDate), name, name, null, false, false, null, null, null);
+    }
+
+    private final HolidayTimeline timeline = HolidayTimeline.of(
+            index.of(2020, "US", List.of(ph("2020-12-25", "Xmas 2020"), ph("2020-11-26", "Thanksgiving"))),
+            index.of(2021, "US", List.of(ph("2021-07-04", "July 4th"), ph("2021-01-01", "NY"), ph("2021-12-25", "Xmas"))));
+
+    @Test
+    void last_on_or_before_walks_back_across_years() {
+        List<HolidaySummary> last = timeline.lastOnOrBefore(LocalDate.of(2021, 7, 4), 3);
+
+        assertThat(last).extracting(HolidaySummary::getDate)
+                .containsExactly(LocalDate.of(2021, 7, 4), LocalDate.of(2021, 1, 1), LocalDate.of(2020, 12, 25));
+        assertThat(last).extracting(HolidaySummary::getName).containsExactly("July 4th", "NY", "Xmas 2020");
+        assertThat(timeline.lastOnOrBefore(LocalDate.of(2021, 7, 3), 10)).hasSize(3);
+        assertThat(timeline.lastOnOrBefore(LocalDate.of(2020, 1, 1), 3)).isEmpty();
+    }
+
+    @Test
+    void next_after_excludes_the_reference_date_and_stops_at_the_end() {
+        assertThat(timeline.nextAfter(LocalDate.of(2020, 12, 25), 2)).extracting(HolidaySummary::getName)
+                .containsExactly("NY", "July 4th");
+        assertThat(timeline.nextAfter(LocalDate.of(2019, 6, 1), 10)).extracting(HolidaySummary::getName)
+                .containsExactly("Thanksgiving", "Xmas 2020", "NY", "July 4th", "Xmas");
+        assertThat(timeline.nextAfter(LocalDate.of(2021, 12, 25), 3)).isEmpty();
+        assertThat(timeline.size()).isEqualTo(5);
+    }
+}
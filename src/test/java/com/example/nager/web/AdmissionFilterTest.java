@@ -0,0 +1,75 @@
+package com.example.nager.web;
+
+import com.example.nager.config.AdmissionProperties;
+import com.example.nager.model.HolidaySummary;
+import com.example.nager.service.HolidayService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionFilterTest {
+
+    private final HolidayService service = mock(HolidayService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdmissionProperties props = new AdmissionProperties();
+    private final AdmissionFilter admission;
+    private final WebTestClient webClient;
+
+    AdmissionFilterTest() {
+        props.setCapacity(10);
+        props.setRetryAfterSeconds(2);
+        admission = new AdmissionFilter(props, registry);
+        webClient = WebTestClient.bindToController(new HolidayController(service))
+                .webFilter(new ResponseCacheFilter(registry, 1 << 20, 60_000), admission).build();
+    }
+
+    @Test
+    void requests_are_refused_with_retry_after_while_their_cost_does_not_fit() {
+        Disposable running = hold("/api/holidays/weekday-count?year=2030&countries=GB,FR,DE,IT,ES,PT,NL,BE");
+        assertThat(admission.inFlight()).isEqualTo(8);
+
+        webClient.get().uri("/api/holidays/weekday-count?year=2030&countries=AT,CH,PL").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+        verifyNoInteractions(service);
+
+        running.dispose();
+        assertThat(admission.inFlight()).isZero();
+        when(service.countWeekdayHolidays(2030, List.of("AT", "CH", "PL"))).thenReturn(Mono.just(List.of()));
+        webClient.get().uri("/api/holidays/weekday-count?year=2030&countries=AT,CH,PL").exchange().expectStatus().isOk();
+        assertThat(registry.get("holiday.admission").tag("result", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void response_cache_hits_are_served_while_saturated() {
+        when(service.getLastHolidays(eq("GB"), any(), anyInt())).thenReturn(Mono.just(List.of(
+                new HolidaySummary(LocalDate.of(2030, 5, 27), "Spring Bank Holiday"))));
+        String uri = "/api/holidays/last-n/GB?n=1&date=2030-06-01";
+        webClient.get().uri(uri).exchange().expectStatus().isOk();
+        props.getCosts().put("/api/holidays/weekday-count/all", 50);
+        Disposable running = hold("/api/holidays/weekday-count/all?year=2030");
+        assertThat(admission.inFlight()).isEqualTo(10);
+
+        webClient.get().uri(uri).exchange().expectStatus().isOk();
+        webClient.get().uri("/api/holidays/last-n/GB?n=2&date=2030-06-01").exchange().expectStatus().isEqualTo(503);
+
+        verify(service, times(1)).getLastHolidays(eq("GB"), any(), anyInt());
+        running.dispose();
+    }
+
+    // an admitted request that keeps running until disposed
+    private Disposable hold(String uri) {
+        return admission.filter(MockServerWebExchange.from(MockServerHttpRequest.get(uri)), exchange -> Mono.never()).subscribe();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.nager.web;
+
+import com.example.nager.client.Deadline;
+import com.example.nager.config.DeadlineProperties;
+import com.example.nager.model.HolidaySummary;
+import com.example.nager.service.HolidayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeadlineFilterTest {
+
+    private final HolidayService service = mock(HolidayService.class);
+    private final DeadlineProperties props = new DeadlineProperties();
+    private final WebTestClient webClient = WebTestClient.bindToController(new HolidayController(service))
+            .webFilter(new DeadlineFilter(props)).build();
+
+    @Test
+    void a_request_past_its_budget_is_cancelled_with_504() {
+        props.setDefaultMs(5000);
+        props.getPaths().put("/api/holidays/last-n", 100L);
+        AtomicReference<Boolean> cancelled = new AtomicReference<>(false);
+        when(service.getLastHolidays(eq("GB"), any(), anyInt())).thenReturn(Mono.<List<HolidaySummary>>never().doOnCancel(() -> cancelled.set(true)));
+
+        webClient.get().uri("/api/holidays/last-n/GB?date=2030-06-01").exchange().expectStatus().isEqualTo(504);
+
+        assertThat(cancelled.get()).isTrue();
+    }
+
+    @Test
+    void the_callers_header_sets_the_budget_seen_downstream_capped_at_the_maximum() {
+        props.setMaxMs(2000);
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+        when(service.getLastHolidays(eq("GB"), any(), anyInt())).thenReturn(Mono.deferContextual(ctx -> {
+            remaining.set(Deadline.from(ctx).remaining());
+            return Mono.just(List.of(new HolidaySummary(LocalDate.of(2030, 5, 27), "Spring Bank Holiday")));
+        }));
+
+        webClient.get().uri("/api/holidays/last-n/GB?date=2030-06-01").header(props.getHeader(), "60000")
+                .exchange().expectStatus().isOk();
+
+        assertThat(remaining.get()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(2000));
+    }
+}
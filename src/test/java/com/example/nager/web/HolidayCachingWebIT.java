@@ -54,7 +54,7 @@ public class HolidayCachingWebIT {
         @Bean
         CacheManager cacheManager() {
             // simple in-memory caches for deterministic behavior in tests
-            return new ConcurrentMapCacheManager("lastThree", "weekdayCounts", "commonDates", "publicHolidays");
+            return new ConcurrentMapCacheManager("timelines", "weekdayCounts", "commonDates", "publicHolidays", "availableCountries", "overlapMatrices", "businessCalendars");
         }
     }
 
@@ -0,0 +1,68 @@
+package com.example.nager.web;
+
+import com.example.nager.model.CountryHolidayCount;
+import com.example.nager.model.HolidaySummary;
+import com.example.nager.service.HolidayService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResponseCacheFilterTest {
+
+    private final HolidayService service = mock(HolidayService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WebTestClient webClient = WebTestClient.bindToController(new HolidayController(service))
+            .webFilter(new ResponseCacheFilter(registry, 1 << 20, 60_000)).build();
+
+    @Test
+    void hit_is_served_from_stored_bytes_and_revalidates_with_304() {
+        LocalDate date = LocalDate.of(2030, 6, 1);
+        when(service.getLastHolidays("GB", date, 2)).thenReturn(Mono.just(List.of(
+                new HolidaySummary(LocalDate.of(2030, 5, 27), "Spring Bank Holiday"), new HolidaySummary(LocalDate.of(2030, 5, 6), "Early May"))));
+
+        String uri = "/api/holidays/last-n/GB?n=2&date=2030-06-01";
+        byte[] first = webClient.get().uri(uri).exchange().expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+        var second = webClient.get().uri(uri).exchange().expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().returnResult();
+        String etag = second.getResponseHeaders().getETag();
+
+        assertThat(second.getResponseBody()).isEqualTo(first);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        assertThat(second.getResponseHeaders().getContentLength()).isEqualTo(first.length);
+        webClient.get().uri(uri).header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+
+        verify(service, times(1)).getLastHolidays("GB", date, 2);
+        assertThat(registry.get("holiday.response.cache").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(registry.get("holiday.response.cache").tag("result", "not_modified").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void errors_and_streams_are_not_cached() {
+        when(service.getLastHolidays(eq("XX"), any(), anyInt())).thenReturn(Mono.error(new IllegalStateException("boom")));
+        when(service.streamWeekdayHolidays(2030, List.of("FR"))).thenReturn(Flux.just(new CountryHolidayCount("FR", 1)));
+
+        for (int i = 0; i < 2; i++) {
+            webClient.get().uri("/api/holidays/last-n/XX?date=2030-06-01").exchange().expectStatus().is5xxServerError();
+            webClient.get().uri("/api/holidays/weekday-count/stream?year=2030&countries=FR").accept(MediaType.APPLICATION_NDJSON)
+                    .exchange().expectStatus().isOk().expectHeader().doesNotExist(HttpHeaders.ETAG);
+        }
+
+        verify(service, times(2)).getLastHolidays(eq("XX"), any(), anyInt());
+        verify(service, times(2)).streamWeekdayHolidays(2030, List.of("FR"));
+    }
+}
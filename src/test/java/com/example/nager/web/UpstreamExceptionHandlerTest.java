@@ -0,0 +1,49 @@
+package com.example.nager.web;
+
+import com.example.nager.client.ConcurrencyLimitExceededException;
+import com.example.nager.config.AdmissionProperties;
+import com.example.nager.service.HolidayService;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class UpstreamExceptionHandlerTest {
+
+    private final HolidayService service = mock(HolidayService.class);
+    private final WebTestClient webClient;
+
+    UpstreamExceptionHandlerTest() {
+        AdmissionProperties props = new AdmissionProperties();
+        props.setRetryAfterSeconds(2);
+        // no admission filter: the mapping holds wherever the rejection comes from
+        webClient = WebTestClient.bindToController(new HolidayController(service))
+                .controllerAdvice(new UpstreamExceptionHandler(props)).build();
+    }
+
+    @Test
+    void an_upstream_concurrency_limit_rejection_is_a_503_with_retry_after() {
+        when(service.getLastHolidays(eq("GB"), any(), anyInt()))
+                .thenReturn(Mono.error(new ConcurrencyLimitExceededException("Upstream concurrency limit reached and wait queue full")));
+
+        webClient.get().uri("/api/holidays/last-n/GB?date=2030-06-01").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+    }
+
+    @Test
+    void an_upstream_rate_limit_rejection_is_a_503_with_retry_after() {
+        when(service.countWeekdayHolidays(2030, List.of("GB")))
+                .thenReturn(Mono.error(RequestNotPermitted.createRequestNotPermitted(RateLimiter.ofDefaults("nager"))));
+
+        webClient.get().uri("/api/holidays/weekday-count?year=2030&countries=GB").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.nager.web;
+
+import com.example.nager.model.CountryHolidayCount;
+import com.example.nager.service.HolidayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WeekdayCountStreamTest {
+
+    private final HolidayService service = mock(HolidayService.class);
+    private final WebTestClient webClient = WebTestClient.bindToController(new HolidayController(service)).build();
+
+    @Test
+    void ndjson_emits_counts_in_arrival_order_then_ranked_summary() {
+        when(service.streamWeekdayHolidays(2021, List.of("FR", "DE", "GB")))
+                .thenReturn(Flux.just(new CountryHolidayCount("FR", 2), new CountryHolidayCount("DE", 1), new CountryHolidayCount("GB", 3)));
+
+        List<Map> lines = webClient.get().uri("/api/holidays/weekday-count/stream?year=2021&countries=fr,de,gb")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Map.class).getResponseBody().collectList().block();
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines.subList(0, 3)).extracting(m -> m.get("countryCode")).containsExactly("FR", "DE", "GB");
+        assertThat(lines.get(3)).containsEntry("year", 2021).containsEntry("countries", 3);
+        assertThat((List<Map<String, Object>>) lines.get(3).get("ranking")).extracting(m -> m.get("countryCode")).containsExactly("GB", "FR", "DE");
+    }
+
+    @Test
+    void sse_names_count_and_summary_events() {
+        when(service.streamWeekdayHolidays(2021, List.of("FR", "DE")))
+                .thenReturn(Flux.just(new CountryHolidayCount("FR", 2), new CountryHolidayCount("DE", 1)));
+
+        List<ServerSentEvent<Map<String, Object>>> events = webClient.get().uri("/api/holidays/weekday-count/stream?year=2021&countries=FR,DE")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() {})
+                .getResponseBody().collectList().block();
+
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("count", "count", "summary");
+        assertThat(events).extracting(ServerSentEvent::id).containsExactly("FR", "DE", null);
+        assertThat(events.get(2).data()).containsEntry("countries", 2);
+    }
+}
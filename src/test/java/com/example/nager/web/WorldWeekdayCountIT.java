@@ -0,0 +1,85 @@
+package com.example.nager.web;
+
+import com.example.nager.NagerHolidaysApplication;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Whole-world fan-out against a slow upstream: 120 countries, more than two rate-limiter periods worth of calls.
+ */
+@SpringBootTest(classes = NagerHolidaysApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "30s")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorldWeekdayCountIT {
+    private static final Logger log = LoggerFactory.getLogger(WorldWeekdayCountIT.class);
+    private static final int COUNTRIES = 120;
+
+    static WireMockServer wm = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+
+    @Autowired
+    WebTestClient webClient;
+
+    static {
+        wm.start();
+        WireMock.configureFor("localhost", wm.port());
+    }
+
+    @AfterAll
+    static void stopWireMock(){
+        if (wm != null && wm.isRunning()) wm.stop();
+    }
+
+    @DynamicPropertySource
+    static void overrideProps(DynamicPropertyRegistry registry){
+        registry.add("nager.base-url", () -> "http://localhost:" + wm.port());
+    }
+
+    @Test
+    void every_country_is_fetched_once_within_concurrency_and_rate_limits() {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < COUNTRIES; i++) codes.add("" + (char) ('A' + i / 26) + (char) ('A' + i % 26));
+        wm.stubFor(get(urlEqualTo("/AvailableCountries")).willReturn(okJson(codes.stream()
+                .map(cc -> "{\"countryCode\":\"" + cc + "\",\"name\":\"Country " + cc + "\"}")
+                .collect(Collectors.joining(",", "[", "]")))));
+        // 2030-01-01 is a Tuesday, 2030-01-05 a Saturday
+        wm.stubFor(get(urlPathMatching("/PublicHolidays/2030/[A-Z]{2}"))
+                .willReturn(okJson("[{\"date\":\"2030-01-01\",\"name\":\"NY\",\"localName\":\"NY\"},"
+                        + "{\"date\":\"2030-01-05\",\"name\":\"Sat\",\"localName\":\"Sat\"}]").withFixedDelay(200)));
+
+        long start = System.nanoTime();
+        List<Map> counts = webClient.get().uri("/api/holidays/weekday-count/all?year=2030")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Map.class)
+                .returnResult().getResponseBody();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Worldwide weekday count for {} countries took {} ms", COUNTRIES, elapsed.toMillis());
+
+        assertThat(counts).hasSize(COUNTRIES).allSatisfy(c -> assertThat(c.get("weekdayHolidayCount")).isEqualTo(1));
+        assertThat(counts).extracting(c -> (String) c.get("countryCode")).containsExactlyElementsOf(codes);
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/AvailableCountries")));
+        for (String cc : codes) WireMock.verify(1, getRequestedFor(urlEqualTo("/PublicHolidays/2030/" + cc)));
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(15));
+    }
+}